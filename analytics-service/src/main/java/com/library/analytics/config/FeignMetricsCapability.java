@@ -0,0 +1,90 @@
+package com.library.analytics.config;
+
+import com.library.analytics.service.ResponseTimeAggregator;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every Feign client method as feign.client.requests, tagged with the target
+ * client, the interface method and the outcome. Applied last, so the timer sees the
+ * whole logical call. Every call also feeds the rolling window behind the system
+ * health report.
+ */
+public class FeignMetricsCapability implements Capability, Ordered {
+
+    private final MeterRegistry meterRegistry;
+    private final ResponseTimeAggregator responseTimeAggregator;
+
+    public FeignMetricsCapability(MeterRegistry meterRegistry, ResponseTimeAggregator responseTimeAggregator) {
+        this.meterRegistry = meterRegistry;
+        this.responseTimeAggregator = responseTimeAggregator;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            long start = System.nanoTime();
+            String outcome = "UNKNOWN";
+            String status = "NONE";
+            try {
+                Response response = client.execute(request, options);
+                status = String.valueOf(response.status());
+                outcome = outcome(response.status());
+                return response;
+            } catch (IOException | RuntimeException e) {
+                outcome = "ERROR";
+                status = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                String error = "SUCCESS".equals(outcome) || "REDIRECTION".equals(outcome) ? null : outcome + " (" + status + ")";
+                responseTimeAggregator.record(clientName(request), elapsed, error);
+                Timer.builder("feign.client.requests")
+                        .description("Feign client method latency")
+                        .tag("client", clientName(request))
+                        .tag("method", methodName(request))
+                        .tag("outcome", outcome)
+                        .tag("status", status)
+                        .register(meterRegistry)
+                        .record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return status >= 200 && status < 300 ? "SUCCESS" : "REDIRECTION";
+    }
+
+    private static String clientName(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().feignTarget() != null) {
+            return request.requestTemplate().feignTarget().name();
+        }
+        return "unknown";
+    }
+
+    private static String methodName(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().methodMetadata() != null) {
+            return request.requestTemplate().methodMetadata().configKey();
+        }
+        return request.httpMethod().name();
+    }
+}
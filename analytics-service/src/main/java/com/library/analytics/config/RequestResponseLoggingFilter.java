@@ -1,11 +1,14 @@
 package com.library.analytics.config;
 
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
@@ -16,7 +19,7 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 public class RequestResponseLoggingFilter implements Filter {
@@ -24,6 +27,9 @@ public class RequestResponseLoggingFilter implements Filter {
     private static final Logger logger = LoggerFactory.getLogger(RequestResponseLoggingFilter.class);
     private static final String REQUEST_ID = "requestId";
 
+    @Autowired(required = false)
+    private Tracer tracer;
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
@@ -38,8 +44,8 @@ public class RequestResponseLoggingFilter implements Filter {
             return;
         }
 
-        // Generate unique request ID
-        String requestId = UUID.randomUUID().toString().substring(0, 8);
+        // Request ID is the trace ID, so one call can be followed across the gateway and every service
+        String requestId = currentRequestId();
         MDC.put(REQUEST_ID, requestId);
 
         // Wrap request and response to capture content
@@ -61,8 +67,17 @@ public class RequestResponseLoggingFilter implements Filter {
         } finally {
             // Copy response content back to original response
             wrappedResponse.copyBodyToResponse();
-            MDC.clear();
+            MDC.remove(REQUEST_ID);
+        }
+    }
+
+    private String currentRequestId() {
+        Span span = tracer != null ? tracer.currentSpan() : null;
+        if (span != null) {
+            return span.context().traceId();
         }
+        // ThreadLocalRandom: UUID's SecureRandom locks and pins virtual threads
+        return String.format("%08x", ThreadLocalRandom.current().nextInt());
     }
 
     private boolean shouldSkipLogging(String requestURI) {
@@ -6,6 +6,7 @@ import java.util.Map;
 public class SystemHealthDto {
     private String status;
     private double responseTime;
+    private double errorRate;
     private long uptime;
     private Map<String, String> moduleStatus;
     private List<String> recentErrors;
@@ -39,6 +40,14 @@ public class SystemHealthDto {
         this.responseTime = responseTime;
     }
     
+    public double getErrorRate() {
+        return errorRate;
+    }
+    
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+    
     public long getUptime() {
         return uptime;
     }
@@ -0,0 +1,88 @@
+package com.library.analytics.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs each downstream's analytics calls on its own Resilience4j thread-pool bulkhead
+ * (named after the service, configured under resilience4j.thread-pool-bulkhead).
+ * A saturated bulkhead or a call that outlives its wait goes straight to the fallback,
+ * so one slow dependency cannot hold the Tomcat request threads.
+ * With virtual threads enabled the request thread is cheap to block, so the call runs
+ * in place behind a semaphore bulkhead of the same name (resilience4j.bulkhead) instead.
+ */
+@Component
+public class DownstreamBulkheads {
+
+    private static final Logger logger = LoggerFactory.getLogger(DownstreamBulkheads.class);
+
+    @Autowired
+    private ThreadPoolBulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private BulkheadRegistry semaphoreBulkheadRegistry;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${library.bulkhead.max-wait-ms:5000}")
+    private long maxWaitMs;
+
+    public <T> T execute(String downstream, Supplier<T> call, Supplier<T> fallback) {
+        if (virtualThreads) {
+            return executeInPlace(downstream, call, fallback);
+        }
+
+        ThreadPoolBulkhead bulkhead = bulkheadRegistry.bulkhead(downstream);
+
+        CompletableFuture<T> future;
+        try {
+            future = bulkhead.executeSupplier(call).toCompletableFuture();
+        } catch (BulkheadFullException e) {
+            logger.warn("🚧 Bulkhead {} is full, serving fallback", downstream);
+            return fallback.get();
+        }
+
+        long waitMs = Math.max(0, Math.min(maxWaitMs, LatencyBudget.remainingMillis()));
+        try {
+            return future.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("⏱️ {} analytics did not finish within {} ms, serving fallback", downstream, waitMs);
+            return fallback.get();
+        } catch (ExecutionException e) {
+            logger.warn("❌ {} analytics failed: {}", downstream, e.getCause().getMessage());
+            return fallback.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fallback.get();
+        }
+    }
+
+    private <T> T executeInPlace(String downstream, Supplier<T> call, Supplier<T> fallback) {
+        Bulkhead bulkhead = semaphoreBulkheadRegistry.bulkhead(downstream);
+        try {
+            return bulkhead.executeSupplier(call);
+        } catch (BulkheadFullException e) {
+            logger.warn("🚧 Bulkhead {} is full, serving fallback", downstream);
+            return fallback.get();
+        } catch (RuntimeException e) {
+            logger.warn("❌ {} analytics failed: {}", downstream, e.getMessage());
+            return fallback.get();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.library.analytics.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a sliding window of the most recent call latencies per endpoint and
+ * answers percentile queries over it.
+ */
+public class EndpointLatencyTracker {
+
+    private final int windowSize;
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public EndpointLatencyTracker(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public void record(String endpoint, long latencyMs) {
+        windows.computeIfAbsent(endpoint, key -> new Window(windowSize)).add(latencyMs);
+    }
+
+    /**
+     * Returns the requested percentile (0.0 - 1.0) of the recent window, or -1 while
+     * fewer than {@code minSamples} calls have been observed for the endpoint.
+     */
+    public long percentile(String endpoint, double quantile, int minSamples) {
+        Window window = windows.get(endpoint);
+        return window != null ? window.percentile(quantile, minSamples) : -1;
+    }
+
+    private static final class Window {
+        private final long[] samples;
+        private int next;
+        private int count;
+
+        Window(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void add(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) {
+                count++;
+            }
+        }
+
+        synchronized long percentile(double quantile, int minSamples) {
+            if (count < Math.max(1, minSamples)) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(quantile * count) - 1;
+            return sorted[Math.max(0, Math.min(index, count - 1))];
+        }
+    }
+}
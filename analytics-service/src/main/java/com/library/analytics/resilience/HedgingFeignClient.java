@@ -0,0 +1,150 @@
+package com.library.analytics.resilience;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Feign client decorator applying the {@link LatencyAwareCallPolicy}.
+ * Every call gets an adaptive read timeout; GET calls still running after the hedge
+ * percentile get a duplicate request. The delegate is the load-balanced client, so the
+ * duplicate is routed round-robin to the next Eureka instance and whichever answers
+ * first wins. The loser's response is closed to hand its connection back to the pool.
+ */
+public class HedgingFeignClient implements Client {
+
+    private final Client delegate;
+    private final LatencyAwareCallPolicy callPolicy;
+
+    public HedgingFeignClient(Client delegate, LatencyAwareCallPolicy callPolicy) {
+        this.delegate = delegate;
+        this.callPolicy = callPolicy;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String endpoint = endpointKey(request);
+        long timeoutMs = callPolicy.timeoutFor(endpoint);
+        if (timeoutMs <= 0) {
+            callPolicy.budgetExhausted(endpoint);
+            throw new SocketTimeoutException("Latency budget exhausted before calling " + endpoint);
+        }
+
+        Request.Options attemptOptions = new Request.Options(
+                options.connectTimeout(), options.connectTimeoutUnit(),
+                timeoutMs, TimeUnit.MILLISECONDS, options.isFollowRedirects());
+
+        long hedgeDelayMs = request.httpMethod() == Request.HttpMethod.GET ? callPolicy.hedgeDelayFor(endpoint) : -1;
+        if (hedgeDelayMs < 0 || hedgeDelayMs >= timeoutMs) {
+            // Not hedged: the read timeout on the socket enforces the adaptive limit
+            return attempt(endpoint, request, attemptOptions);
+        }
+
+        CompletableFuture<Response> primary = submit(endpoint, request, attemptOptions);
+        if (primary == null) {
+            return attempt(endpoint, request, attemptOptions);
+        }
+
+        try {
+            return primary.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException slow) {
+            CompletableFuture<Response> hedge = submit(endpoint, request, attemptOptions);
+            if (hedge == null) {
+                return await(primary, timeoutMs - hedgeDelayMs, endpoint);
+            }
+            callPolicy.hedgeSent(endpoint);
+            return await(firstSuccessful(primary, hedge), timeoutMs - hedgeDelayMs, endpoint);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + endpoint);
+        }
+    }
+
+    private Response attempt(String endpoint, Request request, Request.Options options) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return delegate.execute(request, options);
+        } finally {
+            callPolicy.recordLatency(endpoint, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private CompletableFuture<Response> submit(String endpoint, Request request, Request.Options options) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        try {
+            callPolicy.attemptExecutor().execute(() -> {
+                try {
+                    future.complete(attempt(endpoint, request, options));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+        return future;
+    }
+
+    private Response await(CompletableFuture<Response> future, long timeoutMs, String endpoint) throws IOException {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.thenAccept(Response::close);
+            throw new SocketTimeoutException("Adaptive timeout exceeded for " + endpoint);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling " + endpoint);
+        }
+    }
+
+    private static CompletableFuture<Response> firstSuccessful(CompletableFuture<Response> primary,
+                                                               CompletableFuture<Response> hedge) {
+        CompletableFuture<Response> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        BiConsumer<Response, Throwable> race = (response, error) -> {
+            if (error == null) {
+                if (!winner.complete(response)) {
+                    response.close();
+                }
+            } else if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(error);
+            }
+        };
+        primary.whenComplete(race);
+        hedge.whenComplete(race);
+        return winner;
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException io) {
+            return io;
+        }
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        return new IOException(cause);
+    }
+
+    private static String endpointKey(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().methodMetadata() != null) {
+            return request.requestTemplate().methodMetadata().configKey();
+        }
+        return request.httpMethod() + " " + request.url();
+    }
+}
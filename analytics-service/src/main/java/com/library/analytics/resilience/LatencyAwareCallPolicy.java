@@ -0,0 +1,150 @@
+package com.library.analytics.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency-aware call policy for the analytics Feign clients.
+ * Derives a per-endpoint timeout from the observed p99, decides when a slow call
+ * deserves a hedged duplicate and owns the executor the attempts run on.
+ */
+@Component
+public class LatencyAwareCallPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyAwareCallPolicy.class);
+
+    @Value("${library.call-policy.min-timeout-ms:200}")
+    private long minTimeoutMs;
+
+    @Value("${library.call-policy.max-timeout-ms:3000}")
+    private long maxTimeoutMs;
+
+    @Value("${library.call-policy.timeout-multiplier:1.5}")
+    private double timeoutMultiplier;
+
+    @Value("${library.call-policy.hedging-enabled:true}")
+    private boolean hedgingEnabled;
+
+    @Value("${library.call-policy.hedge-percentile:0.95}")
+    private double hedgePercentile;
+
+    @Value("${library.call-policy.min-samples:20}")
+    private int minSamples;
+
+    @Value("${library.call-policy.window-size:200}")
+    private int windowSize;
+
+    @Value("${library.call-policy.hedge-threads:32}")
+    private int hedgeThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private EndpointLatencyTracker latencyTracker;
+    private ExecutorService attemptThreads;
+    private Executor attemptExecutor;
+
+    @PostConstruct
+    public void init() {
+        latencyTracker = new EndpointLatencyTracker(windowSize);
+
+        // No queue either way: when every attempt slot is busy the call simply isn't hedged
+        if (virtualThreads) {
+            // Virtual threads are not pooled; a semaphore caps the attempts in flight instead
+            attemptThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("feign-hedge-", 1).factory());
+            Semaphore attemptSlots = new Semaphore(hedgeThreads);
+            attemptExecutor = task -> {
+                if (!attemptSlots.tryAcquire()) {
+                    throw new RejectedExecutionException("All " + hedgeThreads + " attempt slots are busy");
+                }
+                try {
+                    attemptThreads.execute(() -> {
+                        try {
+                            task.run();
+                        } finally {
+                            attemptSlots.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    attemptSlots.release();
+                    throw e;
+                }
+            };
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "feign-hedge-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            attemptThreads = new ThreadPoolExecutor(0, hedgeThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    threadFactory);
+            attemptExecutor = attemptThreads;
+        }
+
+        logger.info("⏱️ Latency-aware call policy: timeout p99 x {} in [{}, {}] ms, hedging {} at p{}",
+                timeoutMultiplier, minTimeoutMs, maxTimeoutMs, hedgingEnabled ? "on" : "off",
+                Math.round(hedgePercentile * 100));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        attemptThreads.shutdownNow();
+    }
+
+    /**
+     * Timeout for the next call to the endpoint: p99 times the multiplier, clamped to the
+     * configured bounds and to whatever is left of the current request's latency budget.
+     * Falls back to the upper bound until enough samples have been seen.
+     */
+    public long timeoutFor(String endpoint) {
+        long p99 = latencyTracker.percentile(endpoint, 0.99, minSamples);
+        long timeout = p99 < 0 ? maxTimeoutMs : Math.round(p99 * timeoutMultiplier);
+        timeout = Math.max(minTimeoutMs, Math.min(maxTimeoutMs, timeout));
+        return Math.min(timeout, LatencyBudget.remainingMillis());
+    }
+
+    /** Delay after which a duplicate request is sent, or -1 when the endpoint should not be hedged. */
+    public long hedgeDelayFor(String endpoint) {
+        if (!hedgingEnabled) {
+            return -1;
+        }
+        return latencyTracker.percentile(endpoint, hedgePercentile, minSamples);
+    }
+
+    public void recordLatency(String endpoint, long latencyMs) {
+        latencyTracker.record(endpoint, latencyMs);
+    }
+
+    public Executor attemptExecutor() {
+        return attemptExecutor;
+    }
+
+    public void hedgeSent(String endpoint) {
+        meterRegistry.counter("analytics.calls.hedged", "endpoint", endpoint).increment();
+    }
+
+    public void budgetExhausted(String endpoint) {
+        meterRegistry.counter("analytics.calls.budget.exhausted", "endpoint", endpoint).increment();
+    }
+}
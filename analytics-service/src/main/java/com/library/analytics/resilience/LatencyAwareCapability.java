@@ -0,0 +1,28 @@
+package com.library.analytics.resilience;
+
+import feign.Capability;
+import feign.Client;
+import org.springframework.core.Ordered;
+
+/**
+ * Installs the {@link HedgingFeignClient} right around the load-balanced client, inside
+ * any other capability, so retries of a hedge never show up as separate calls upstream.
+ */
+public class LatencyAwareCapability implements Capability, Ordered {
+
+    private final LatencyAwareCallPolicy callPolicy;
+
+    public LatencyAwareCapability(LatencyAwareCallPolicy callPolicy) {
+        this.callPolicy = callPolicy;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return new HedgingFeignClient(client, callPolicy);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
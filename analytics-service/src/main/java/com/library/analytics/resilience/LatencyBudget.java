@@ -0,0 +1,43 @@
+package com.library.analytics.resilience;
+
+/**
+ * Per-request latency budget. A dashboard request opens a budget on its thread and
+ * every downstream call made on that thread is capped to what is left of it, so a
+ * slow dependency eats into the remaining calls instead of stacking up timeouts.
+ */
+public final class LatencyBudget {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private LatencyBudget() {}
+
+    public static void open(long budgetMs) {
+        DEADLINE.set(System.nanoTime() + budgetMs * 1_000_000L);
+    }
+
+    public static void close() {
+        DEADLINE.remove();
+    }
+
+    /** Raw deadline of the current thread, for handing the budget to a worker thread. */
+    public static Long currentDeadline() {
+        return DEADLINE.get();
+    }
+
+    public static void restoreDeadline(Long deadlineNanos) {
+        if (deadlineNanos != null) {
+            DEADLINE.set(deadlineNanos);
+        } else {
+            DEADLINE.remove();
+        }
+    }
+
+    /** Milliseconds left in the current budget, or Long.MAX_VALUE when none is open. */
+    public static long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return (deadline - System.nanoTime()) / 1_000_000L;
+    }
+}
@@ -0,0 +1,28 @@
+package com.library.analytics.resilience;
+
+import io.github.resilience4j.core.ContextPropagator;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Carries the dashboard's {@link LatencyBudget} onto bulkhead threads.
+ */
+public class LatencyBudgetPropagator implements ContextPropagator<Long> {
+
+    @Override
+    public Supplier<Optional<Long>> retrieve() {
+        return () -> Optional.ofNullable(LatencyBudget.currentDeadline());
+    }
+
+    @Override
+    public Consumer<Optional<Long>> copy() {
+        return deadline -> deadline.ifPresent(LatencyBudget::restoreDeadline);
+    }
+
+    @Override
+    public Consumer<Optional<Long>> clear() {
+        return deadline -> LatencyBudget.close();
+    }
+}
@@ -0,0 +1,31 @@
+package com.library.analytics.resilience;
+
+import io.github.resilience4j.core.ContextPropagator;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Carries the servlet request attributes onto bulkhead threads so the
+ * FeignClientInterceptor can still forward the caller's JWT.
+ */
+public class RequestContextPropagator implements ContextPropagator<RequestAttributes> {
+
+    @Override
+    public Supplier<Optional<RequestAttributes>> retrieve() {
+        return () -> Optional.ofNullable(RequestContextHolder.getRequestAttributes());
+    }
+
+    @Override
+    public Consumer<Optional<RequestAttributes>> copy() {
+        return attributes -> attributes.ifPresent(RequestContextHolder::setRequestAttributes);
+    }
+
+    @Override
+    public Consumer<Optional<RequestAttributes>> clear() {
+        return attributes -> RequestContextHolder.resetRequestAttributes();
+    }
+}
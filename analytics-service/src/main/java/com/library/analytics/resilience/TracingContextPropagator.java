@@ -0,0 +1,40 @@
+package com.library.analytics.resilience;
+
+import io.github.resilience4j.core.ContextPropagator;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Carries the current observation (and with it the trace context and MDC) onto
+ * bulkhead threads, so downstream Feign spans stay children of the dashboard request.
+ */
+public class TracingContextPropagator implements ContextPropagator<ContextSnapshot> {
+
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+    private static final ThreadLocal<ContextSnapshot.Scope> SCOPE = new ThreadLocal<>();
+
+    @Override
+    public Supplier<Optional<ContextSnapshot>> retrieve() {
+        return () -> Optional.of(SNAPSHOTS.captureAll());
+    }
+
+    @Override
+    public Consumer<Optional<ContextSnapshot>> copy() {
+        return snapshot -> snapshot.ifPresent(captured -> SCOPE.set(captured.setThreadLocals()));
+    }
+
+    @Override
+    public Consumer<Optional<ContextSnapshot>> clear() {
+        return snapshot -> {
+            ContextSnapshot.Scope scope = SCOPE.get();
+            if (scope != null) {
+                scope.close();
+                SCOPE.remove();
+            }
+        };
+    }
+}
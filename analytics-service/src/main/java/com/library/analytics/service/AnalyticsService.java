@@ -4,13 +4,17 @@ import com.library.analytics.client.BookServiceClient;
 import com.library.analytics.client.TransactionServiceClient;
 import com.library.analytics.client.UserServiceClient;
 import com.library.analytics.dto.*;
+import com.library.analytics.resilience.DownstreamBulkheads;
+import com.library.analytics.resilience.LatencyBudget;
 import feign.FeignException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.lang.management.ManagementFactory;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,8 +34,30 @@ public class AnalyticsService {
     @Autowired
     private TransactionServiceClient transactionServiceClient;
     
+    @Autowired
+    private DownstreamBulkheads downstreamBulkheads;
+    
+    @Autowired
+    private ResponseTimeAggregator responseTimeAggregator;
+    
+    @Value("${library.health.degraded-error-rate:0.05}")
+    private double degradedErrorRate;
+    
+    @Value("${library.call-policy.dashboard-budget-ms:1500}")
+    private long dashboardBudgetMs;
+    
     @CircuitBreaker(name = "analytics-dashboard", fallbackMethod = "fallbackGenerateDashboard")
     public AnalyticsDashboardDto generateDashboard() {
+        // Every downstream call below shares one latency budget
+        LatencyBudget.open(dashboardBudgetMs);
+        try {
+            return assembleDashboard();
+        } finally {
+            LatencyBudget.close();
+        }
+    }
+    
+    private AnalyticsDashboardDto assembleDashboard() {
         logger.info("Generating analytics dashboard");
         
         AnalyticsDashboardDto dashboard = new AnalyticsDashboardDto();
@@ -102,6 +128,10 @@ public class AnalyticsService {
     
     @CircuitBreaker(name = "user-analytics", fallbackMethod = "fallbackGetUserAnalytics")
     public UserAnalyticsDto getUserAnalytics() {
+        return downstreamBulkheads.execute("user-service", this::collectUserAnalytics, this::getFallbackUserAnalytics);
+    }
+    
+    private UserAnalyticsDto collectUserAnalytics() {
         UserAnalyticsDto analytics = new UserAnalyticsDto();
         
         // Get total users count with individual error handling
@@ -177,6 +207,10 @@ public class AnalyticsService {
     
     @CircuitBreaker(name = "book-analytics", fallbackMethod = "fallbackGetBookAnalytics")
     public BookAnalyticsDto getBookAnalytics() {
+        return downstreamBulkheads.execute("book-service", this::collectBookAnalytics, this::getFallbackBookAnalytics);
+    }
+    
+    private BookAnalyticsDto collectBookAnalytics() {
         BookAnalyticsDto analytics = new BookAnalyticsDto();
         
         // Get total books count with individual error handling
@@ -277,6 +311,10 @@ public class AnalyticsService {
     
     @CircuitBreaker(name = "transaction-analytics", fallbackMethod = "fallbackGetTransactionAnalytics")
     public TransactionAnalyticsDto getTransactionAnalytics() {
+        return downstreamBulkheads.execute("transaction-service", this::collectTransactionAnalytics, this::getFallbackTransactionAnalytics);
+    }
+    
+    private TransactionAnalyticsDto collectTransactionAnalytics() {
         TransactionAnalyticsDto analytics = new TransactionAnalyticsDto();
         
         // Get total transactions count with individual error handling
@@ -408,22 +446,19 @@ public class AnalyticsService {
         // Overall system status
         boolean allServicesUp = moduleStatus.values().stream()
             .allMatch(status -> "UP".equals(status));
-        health.setStatus(allServicesUp ? "UP" : "DEGRADED");
+        double errorRate = responseTimeAggregator.getErrorRate();
+        health.setStatus(allServicesUp && errorRate < degradedErrorRate ? "UP" : "DEGRADED");
         
-        // Set response time (mock value)
-        health.setResponseTime(150.0);
+        // Downstream latency and error rate over the rolling window of real Feign calls
+        health.setResponseTime(responseTimeAggregator.getAverageResponseTimeMs());
+        health.setErrorRate(errorRate);
         
-        // Set uptime (mock value in seconds)
-        health.setUptime(System.currentTimeMillis() / 1000);
+        // JVM uptime in seconds
+        health.setUptime(ManagementFactory.getRuntimeMXBean().getUptime() / 1000);
         
         health.setModuleStatus(moduleStatus);
         
-        // Generate mock recent errors
-        java.util.List<String> recentErrors = new java.util.ArrayList<>();
-        if (!allServicesUp) {
-            recentErrors.add("Service connectivity issue detected");
-        }
-        health.setRecentErrors(recentErrors);
+        health.setRecentErrors(responseTimeAggregator.getRecentErrors());
         
         return health;
     }
@@ -0,0 +1,104 @@
+package com.library.analytics.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling response-time and error-rate window over the analytics service's downstream
+ * calls, fed by the Feign metrics capability. Backs the responseTime, errorRate and
+ * recentErrors of the system health report.
+ */
+@Component
+public class ResponseTimeAggregator {
+
+    private static final DateTimeFormatter ERROR_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Value("${library.health.window-seconds:300}")
+    private int windowSeconds;
+
+    @Value("${library.health.bucket-seconds:10}")
+    private int bucketSeconds;
+
+    @Value("${library.health.recent-errors:10}")
+    private int maxRecentErrors;
+
+    private long[] bucketIds;
+    private long[] counts;
+    private long[] errors;
+    private long[] latencySumNanos;
+    private final Deque<String> recentErrors = new ArrayDeque<>();
+
+    @PostConstruct
+    public void init() {
+        int buckets = Math.max(1, windowSeconds / bucketSeconds);
+        bucketIds = new long[buckets];
+        counts = new long[buckets];
+        errors = new long[buckets];
+        latencySumNanos = new long[buckets];
+    }
+
+    public synchronized void record(String target, long latencyNanos, String error) {
+        long bucketId = currentBucketId();
+        int slot = (int) (bucketId % bucketIds.length);
+        if (bucketIds[slot] != bucketId) {
+            bucketIds[slot] = bucketId;
+            counts[slot] = 0;
+            errors[slot] = 0;
+            latencySumNanos[slot] = 0;
+        }
+        counts[slot]++;
+        latencySumNanos[slot] += latencyNanos;
+        if (error != null) {
+            errors[slot]++;
+            recentErrors.addFirst(LocalDateTime.now().format(ERROR_TIMESTAMP) + " " + target + ": " + error);
+            while (recentErrors.size() > maxRecentErrors) {
+                recentErrors.removeLast();
+            }
+        }
+    }
+
+    /** Mean downstream response time over the window, in milliseconds. */
+    public synchronized double getAverageResponseTimeMs() {
+        long count = 0;
+        long sum = 0;
+        long oldest = currentBucketId() - bucketIds.length;
+        for (int i = 0; i < bucketIds.length; i++) {
+            if (bucketIds[i] > oldest) {
+                count += counts[i];
+                sum += latencySumNanos[i];
+            }
+        }
+        return count > 0 ? Math.round(sum / (double) count / TimeUnit.MILLISECONDS.toNanos(1) * 100.0) / 100.0 : 0.0;
+    }
+
+    /** Fraction (0.0 - 1.0) of downstream calls that failed over the window. */
+    public synchronized double getErrorRate() {
+        long count = 0;
+        long failed = 0;
+        long oldest = currentBucketId() - bucketIds.length;
+        for (int i = 0; i < bucketIds.length; i++) {
+            if (bucketIds[i] > oldest) {
+                count += counts[i];
+                failed += errors[i];
+            }
+        }
+        return count > 0 ? Math.round(failed / (double) count * 10000.0) / 10000.0 : 0.0;
+    }
+
+    public synchronized List<String> getRecentErrors() {
+        return new ArrayList<>(recentErrors);
+    }
+
+    private long currentBucketId() {
+        return System.currentTimeMillis() / TimeUnit.SECONDS.toMillis(bucketSeconds);
+    }
+}
@@ -1,5 +1,6 @@
 package com.library.gateway.config;
 
+import io.micrometer.tracing.handler.TracingObservationHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -8,6 +9,7 @@ import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
@@ -30,8 +32,8 @@ public class RequestResponseLoggingFilter implements GlobalFilter, Ordered {
             return chain.filter(exchange);
         }
 
-        // Generate unique request ID
-        String requestId = UUID.randomUUID().toString().substring(0, 8);
+        // Request ID is the trace ID, so one call can be followed across the gateway and every service
+        String requestId = currentRequestId(exchange);
         MDC.put(REQUEST_ID, requestId);
 
         long startTime = System.currentTimeMillis();
@@ -44,10 +46,18 @@ public class RequestResponseLoggingFilter implements GlobalFilter, Ordered {
                     // Log response
                     ServerHttpResponse response = exchange.getResponse();
                     logResponse(response, requestId, System.currentTimeMillis() - startTime);
-                    MDC.clear();
+                    MDC.remove(REQUEST_ID);
                 });
     }
 
+    private String currentRequestId(ServerWebExchange exchange) {
+        return ServerRequestObservationContext.findCurrent(exchange.getAttributes())
+                .map(context -> context.<TracingObservationHandler.TracingContext>get(TracingObservationHandler.TracingContext.class))
+                .map(TracingObservationHandler.TracingContext::getSpan)
+                .map(span -> span.context().traceId())
+                .orElseGet(() -> UUID.randomUUID().toString().substring(0, 8));
+    }
+
     private boolean shouldSkipLogging(String path) {
         return path.contains("/actuator") || 
                path.contains("/health") ||
@@ -0,0 +1,52 @@
+# Compare two JMH JSON result files (e.g. from two commits)
+# Usage: .\compare-results.ps1 -Baseline jmh-result-abc123.json -Candidate jmh-result-def456.json [-Threshold 10]
+
+param(
+    [Parameter(Mandatory = $true)][string]$Baseline,
+    [Parameter(Mandatory = $true)][string]$Candidate,
+    [double]$Threshold = 10  # % change flagged as regression / improvement
+)
+
+# Colors for output
+$Green = "Green"
+$Red = "Red"
+$Cyan = "Cyan"
+
+function Get-Scores {
+    param([string]$Path)
+
+    $scores = @{}
+    foreach ($result in (Get-Content $Path -Raw | ConvertFrom-Json)) {
+        $params = if ($result.params) { ($result.params.PSObject.Properties | ForEach-Object { "$($_.Name)=$($_.Value)" }) -join "," } else { "" }
+        $key = if ($params) { "$($result.benchmark) [$params]" } else { $result.benchmark }
+        $scores[$key] = $result.primaryMetric
+    }
+    return $scores
+}
+
+$baselineScores = Get-Scores -Path $Baseline
+$candidateScores = Get-Scores -Path $Candidate
+$regressions = 0
+
+Write-Host "=== JMH comparison: $Baseline -> $Candidate ===" -ForegroundColor $Cyan
+foreach ($key in ($candidateScores.Keys | Sort-Object)) {
+    $new = $candidateScores[$key]
+    if (-not $baselineScores.ContainsKey($key)) {
+        Write-Host ("{0,-90} {1,12:N3} {2} (new)" -f $key, $new.score, $new.scoreUnit)
+        continue
+    }
+    $old = $baselineScores[$key]
+    $change = if ($old.score -ne 0) { ($new.score - $old.score) / $old.score * 100 } else { 0 }
+    # Average-time scores (time/op) regress when they grow, throughput scores when they shrink
+    $worse = if ($new.scoreUnit -like "ops/*") { $change -lt -$Threshold } else { $change -gt $Threshold }
+    $better = if ($new.scoreUnit -like "ops/*") { $change -gt $Threshold } else { $change -lt -$Threshold }
+    $color = if ($worse) { $Red } elseif ($better) { $Green } else { "White" }
+    if ($worse) { $regressions++ }
+    Write-Host ("{0,-90} {1,12:N3} -> {2,12:N3} {3} ({4:+0.0;-0.0}%)" -f $key, $old.score, $new.score, $new.scoreUnit, $change) -ForegroundColor $color
+}
+
+if ($regressions -gt 0) {
+    Write-Host "$regressions benchmark(s) regressed by more than $Threshold%" -ForegroundColor $Red
+    exit 1
+}
+Write-Host "No regressions above $Threshold%" -ForegroundColor $Green
@@ -0,0 +1,32 @@
+package com.library.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the regular JMH command line (benchmark regex,
+ * -f, -wi, -i, -prof ...) but always writes the results as JSON, by default to
+ * jmh-result-&lt;label&gt;.json where the label comes from -Dbenchmark.label (e.g. the commit id).
+ * Compare two runs with compare-results.ps1.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        String label = System.getProperty("benchmark.label", String.valueOf(System.currentTimeMillis()));
+        String resultFile = System.getProperty("benchmark.result", "jmh-result-" + label + ".json");
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+
+        new Runner(options).run();
+        System.out.println("JMH results written to " + resultFile);
+    }
+}
@@ -0,0 +1,152 @@
+package com.library.benchmarks.analytics;
+
+import com.library.analytics.client.BookServiceClient;
+import com.library.analytics.client.TransactionServiceClient;
+import com.library.analytics.client.UserServiceClient;
+import com.library.analytics.dto.AnalyticsDashboardDto;
+import com.library.analytics.dto.BookAnalyticsDto;
+import com.library.analytics.dto.UserAnalyticsDto;
+import com.library.analytics.resilience.DownstreamBulkheads;
+import com.library.analytics.service.AnalyticsService;
+import com.library.analytics.service.ResponseTimeAggregator;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * DTO assembly through the public {@link AnalyticsService} API with the Feign clients
+ * replaced by in-memory stubs: the user and book sections (including the role and category
+ * Collectors.toMap), the whole dashboard with its inventory section, and the bare toMap
+ * conversions. Bulkheads run in place (the virtual-thread mode), so no thread hop is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalyticsAssemblyBenchmark {
+
+    @Param({"12", "200"})
+    private int categories;
+
+    private AnalyticsService analyticsService;
+    private List<Map<String, Object>> roleData;
+    private List<Map<String, Object>> categoryData;
+
+    @Setup
+    public void setUp() {
+        roleData = new ArrayList<>();
+        for (String role : new String[]{"USER", "LIBRARIAN", "ADMIN"}) {
+            roleData.add(Map.of("role", role, "count", 100L));
+        }
+        categoryData = new ArrayList<>();
+        for (int i = 0; i < categories; i++) {
+            categoryData.add(Map.of("category", "Category " + i, "count", (long) (10 + i)));
+        }
+
+        List<Object[]> topBorrowers = new ArrayList<>();
+        List<BookServiceClient.BookStatsDto> bookStats = new ArrayList<>();
+        List<BookServiceClient.BookDto> lowStock = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            topBorrowers.add(new Object[]{(long) i, "user" + i, "user" + i + "@library.com", 20L - i});
+
+            BookServiceClient.BookStatsDto stats = new BookServiceClient.BookStatsDto();
+            stats.setId((long) i);
+            stats.setTitle("Book Title " + i);
+            stats.setAuthor("Author " + i);
+            stats.setBorrowedCount(50L - i);
+            bookStats.add(stats);
+
+            BookServiceClient.BookDto book = new BookServiceClient.BookDto();
+            book.setId((long) i);
+            book.setTitle("Low Stock Book " + i);
+            book.setAvailableCopies(1);
+            lowStock.add(book);
+        }
+
+        Map<String, Object> cannedResponses = new HashMap<>();
+        cannedResponses.put("getUserCountByRole", roleData);
+        cannedResponses.put("getTopBorrowers", topBorrowers);
+        cannedResponses.put("getBookCountByCategory", categoryData);
+        cannedResponses.put("getPopularBooks", bookStats);
+        cannedResponses.put("getRecentlyAddedBooks", bookStats);
+        cannedResponses.put("getLowStockBooks", lowStock);
+
+        DownstreamBulkheads bulkheads = new DownstreamBulkheads();
+        ReflectionTestUtils.setField(bulkheads, "virtualThreads", true);
+        ReflectionTestUtils.setField(bulkheads, "semaphoreBulkheadRegistry", BulkheadRegistry.ofDefaults());
+
+        ResponseTimeAggregator aggregator = new ResponseTimeAggregator();
+        ReflectionTestUtils.setField(aggregator, "windowSeconds", 300);
+        ReflectionTestUtils.setField(aggregator, "bucketSeconds", 10);
+        ReflectionTestUtils.setField(aggregator, "maxRecentErrors", 10);
+        aggregator.init();
+
+        analyticsService = new AnalyticsService();
+        ReflectionTestUtils.setField(analyticsService, "downstreamBulkheads", bulkheads);
+        ReflectionTestUtils.setField(analyticsService, "responseTimeAggregator", aggregator);
+        ReflectionTestUtils.setField(analyticsService, "degradedErrorRate", 0.05);
+        ReflectionTestUtils.setField(analyticsService, "dashboardBudgetMs", 1500L);
+        ReflectionTestUtils.setField(analyticsService, "userServiceClient", stub(UserServiceClient.class, cannedResponses));
+        ReflectionTestUtils.setField(analyticsService, "bookServiceClient", stub(BookServiceClient.class, cannedResponses));
+        ReflectionTestUtils.setField(analyticsService, "transactionServiceClient",
+                stub(TransactionServiceClient.class, cannedResponses));
+    }
+
+    @Benchmark
+    public UserAnalyticsDto userAnalytics() {
+        return analyticsService.getUserAnalytics();
+    }
+
+    @Benchmark
+    public BookAnalyticsDto bookAnalytics() {
+        return analyticsService.getBookAnalytics();
+    }
+
+    @Benchmark
+    public AnalyticsDashboardDto dashboard() {
+        return analyticsService.generateDashboard();
+    }
+
+    @Benchmark
+    public Map<String, Long> roleToMap() {
+        return roleData.stream()
+                .collect(Collectors.toMap(
+                        map -> (String) map.get("role"),
+                        map -> ((Number) map.get("count")).longValue()));
+    }
+
+    @Benchmark
+    public Map<String, Long> categoryToMap() {
+        return categoryData.stream()
+                .collect(Collectors.toMap(
+                        map -> (String) map.get("category"),
+                        map -> ((Number) map.get("count")).longValue()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> client, Map<String, Object> cannedResponses) {
+        return (T) Proxy.newProxyInstance(client.getClassLoader(), new Class<?>[]{client}, (proxy, method, args) -> {
+            if (cannedResponses.containsKey(method.getName())) {
+                return cannedResponses.get(method.getName());
+            }
+            if (method.getReturnType() == Long.class) {
+                return 1000L;
+            }
+            if (method.getReturnType() == List.class) {
+                return Collections.emptyList();
+            }
+            return null;
+        });
+    }
+}
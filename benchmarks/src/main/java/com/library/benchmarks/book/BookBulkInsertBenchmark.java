@@ -0,0 +1,111 @@
+package com.library.benchmarks.book;
+
+import com.library.book.entity.Book;
+import com.library.book.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BookRepository#saveAll} of 100k new books in one transaction, the persistence
+ * half of createBooksFromCsv. "identity" is the old mapping (IDENTITY ids, one INSERT per
+ * row), "pooled-sequence" the current one with the config-server batching settings.
+ * Runs against in-memory H2 by default; -Dbenchmark.jdbc.url/-user/-password point it at
+ * Postgres, where the per-row round trip is what batching removes.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookBulkInsertBenchmark {
+
+    @Param({"identity", "pooled-sequence"})
+    private String idGeneration;
+
+    @Param({"100000"})
+    private int rows;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private BookRepository bookRepository;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private List<Book> books;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("benchmark.jdbc.url", "jdbc:h2:mem:bulkinsert;DB_CLOSE_DELAY=-1"),
+                System.getProperty("benchmark.jdbc.user", "sa"),
+                System.getProperty("benchmark.jdbc.password", ""));
+
+        Properties jpaProperties = new Properties();
+        jpaProperties.put("hibernate.hbm2ddl.auto", "create-drop");
+        if ("pooled-sequence".equals(idGeneration)) {
+            jpaProperties.put("hibernate.jdbc.batch_size", "50");
+            jpaProperties.put("hibernate.jdbc.batch_versioned_data", "true");
+            jpaProperties.put("hibernate.order_inserts", "true");
+            jpaProperties.put("hibernate.order_updates", "true");
+        }
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setPackagesToScan(Book.class.getPackageName());
+        entityManagerFactoryBean.setJpaProperties(jpaProperties);
+        if ("identity".equals(idGeneration)) {
+            entityManagerFactoryBean.setMappingResources("META-INF/book-identity-orm.xml");
+        }
+        entityManagerFactoryBean.afterPropertiesSet();
+
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+        bookRepository = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory))
+                .getRepository(BookRepository.class);
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Setup(Level.Invocation)
+    public void freshBooks() {
+        jdbcTemplate.execute("DELETE FROM books");
+        books = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Book book = new Book();
+            book.setIsbn(String.format("978-%010d", i));
+            book.setTitle("Book Title " + i);
+            book.setAuthor("Author " + (i % 500));
+            book.setCategory("Category " + (i % 12));
+            book.setPublisher("Publisher " + (i % 40));
+            book.setTotalCopies(1 + i % 9);
+            book.setAvailableCopies(1 + i % 9);
+            book.setPrice(BigDecimal.valueOf(1099 + i % 9000, 2));
+            book.setPublicationYear(1950 + i % 75);
+            book.setPages(100 + i % 900);
+            books.add(book);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+    }
+
+    @Benchmark
+    public List<Book> saveAll() {
+        return transactionTemplate.execute(status -> bookRepository.saveAll(books));
+    }
+}
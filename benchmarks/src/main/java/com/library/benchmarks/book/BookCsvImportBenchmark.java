@@ -0,0 +1,78 @@
+package com.library.benchmarks.book;
+
+import com.library.book.entity.Book;
+import com.library.book.repository.BookRepository;
+import com.library.book.service.BookAvailabilityStream;
+import com.library.book.service.BookService;
+import com.library.book.service.HotBookInventory;
+import com.library.book.service.LowStockIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV import through {@link BookService#createBooksFromCsv}: OpenCSV read, header detection
+ * and per-record parsing. The repository is a stub that finds no duplicate ISBNs and hands
+ * the batch back, so persistence is not part of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookCsvImportBenchmark {
+
+    private static final String HEADER =
+            "ISBN,Title,Author,Category,Publisher,TotalCopies,Price,PublicationYear,Pages,Language,Description";
+
+    @Param({"100", "10000"})
+    private int rows;
+
+    private BookService bookService;
+    private MockMultipartFile csvFile;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        BookRepository repository = (BookRepository) Proxy.newProxyInstance(
+                BookRepository.class.getClassLoader(),
+                new Class<?>[]{BookRepository.class},
+                (proxy, method, args) -> {
+                    if ("saveAll".equals(method.getName())) {
+                        // Ids as the database would assign them; the service reports each saved book by id
+                        long id = 0;
+                        for (Book book : (List<Book>) args[0]) {
+                            book.setId(++id);
+                        }
+                        return args[0];
+                    }
+                    return method.getReturnType() == Optional.class ? Optional.empty() : null;
+                });
+        bookService = new BookService(repository, new HotBookInventory(), new BookAvailabilityStream(),
+                new LowStockIndex());
+
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (int i = 0; i < rows; i++) {
+            String[] record = {
+                    String.format("978-%010d", i), "Book Title " + i, "Author " + (i % 500),
+                    "Category " + (i % 12), "Publisher " + (i % 40), String.valueOf(1 + i % 9),
+                    String.valueOf(10 + i % 90) + ".99", String.valueOf(1950 + i % 75),
+                    String.valueOf(100 + i % 900), "English", "Description of book " + i
+            };
+            csv.append(String.join(",", record)).append('\n');
+        }
+        csvFile = new MockMultipartFile("file", "books.csv", "text/csv",
+                csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public List<Book> createBooksFromCsv() throws Exception {
+        return bookService.createBooksFromCsv(csvFile);
+    }
+}
@@ -0,0 +1,88 @@
+package com.library.benchmarks.transaction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.library.transaction.dto.TransactionResponseDto;
+import com.library.transaction.entity.Transaction;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of turning transaction entities into {@link TransactionResponseDto} lists and of
+ * serializing them, as the list endpoints of transaction-service do. The mappers are
+ * built the way Spring Boot builds them (JavaTimeModule, no timestamp dates).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionResponseDtoBenchmark {
+
+    @Param({"50", "1000"})
+    private int size;
+
+    private List<Transaction> transactions;
+    private List<TransactionResponseDto> dtos;
+    private ObjectMapper jsonMapper;
+    private ObjectMapper smileMapper;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Transaction transaction = new Transaction((long) (i % 200), (long) (i % 1000), Transaction.TransactionType.BORROW);
+            transaction.setId((long) i);
+            transaction.setUserEmail("user" + (i % 200) + "@library.com");
+            transaction.setBookTitle("Book Title " + i);
+            transaction.setBookAuthor("Author " + (i % 300));
+            transaction.setBookIsbn(String.format("978-%010d", i));
+            transaction.setCreatedAt(now.minusDays(i % 30));
+            transaction.setUpdatedAt(now.minusDays(i % 30));
+            // A third of the loans are overdue, which exercises getDaysOverdue()
+            transaction.setDueDate(i % 3 == 0 ? now.minusDays(3) : now.plusDays(10));
+            if (i % 4 == 0) {
+                transaction.markAsReturned();
+            }
+            transactions.add(transaction);
+        }
+        dtos = toDtos();
+
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        smileMapper = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+    }
+
+    @Benchmark
+    public List<TransactionResponseDto> construct() {
+        return toDtos();
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws Exception {
+        return jsonMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] serializeSmile() throws Exception {
+        return smileMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] constructAndSerializeJson() throws Exception {
+        return jsonMapper.writeValueAsBytes(toDtos());
+    }
+
+    private List<TransactionResponseDto> toDtos() {
+        return transactions.stream()
+                .map(TransactionResponseDto::new)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,27 +1,44 @@
 package com.library.book.controller;
 
+import com.library.book.dto.BookCatalogEntryDto;
 import com.library.book.dto.BookDto;
 import com.library.book.entity.Book;
+import com.library.book.service.BookAvailabilityStream;
 import com.library.book.service.BookService;
+import com.library.book.service.LowStockIndex;
 import com.opencsv.exceptions.CsvException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
     
+    private static final int MAX_BATCH_IDS = 500;
+    
     @Autowired
     private BookService bookService;
     
+    @Autowired
+    private BookAvailabilityStream availabilityStream;
+    
+    @Autowired
+    private LowStockIndex lowStockIndex;
+    
     @GetMapping
     public ResponseEntity<List<Book>> getAllBooks() {
         List<Book> books = bookService.findAllBooks();
@@ -70,6 +87,30 @@ public class BookController {
         return ResponseEntity.ok(publishers);
     }
     
+    // Multi-get for transaction-service's batch loader: one IN query, unknown ids are left out
+    @GetMapping("/batch")
+    public ResponseEntity<?> getBooksByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BATCH_IDS + " ids per batch");
+        }
+        return ResponseEntity.ok(bookService.findAllByIds(ids));
+    }
+    
+    // Live availability as server-sent events: one "availability" event per tick listing the books that changed.
+    // Narrow it with ?ids=1,2,3 and/or ?category=; the filtered books' current values come first.
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAvailability(@RequestParam(required = false) Set<Long> ids,
+                                                         @RequestParam(required = false) String category) {
+        if (ids != null && ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(availabilityStream.subscribe(ids != null ? ids : Set.of(), category));
+        } catch (BookAvailabilityStream.SubscriberLimitException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Book> getBookById(@PathVariable Long id) {
         return bookService.findById(id)
@@ -161,6 +202,21 @@ public class BookController {
         return ResponseEntity.ok(books);
     }
     
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+//    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+    public ResponseEntity<SseEmitter> streamLowStock(@RequestParam(defaultValue = "5") Integer threshold) {
+        if (!lowStockIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            return ResponseEntity.ok(lowStockIndex.subscribe(threshold));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (BookAvailabilityStream.SubscriberLimitException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
     @GetMapping("/out-of-stock")
 //    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
     public ResponseEntity<List<Book>> getOutOfStockBooks() {
@@ -241,6 +297,13 @@ public class BookController {
     }
     
     // Internal endpoints for Transaction Service
+    // Catalog replica feed: everything, or only books changed after ?since=
+    @GetMapping("/catalog")
+    public ResponseEntity<List<BookCatalogEntryDto>> getCatalog(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ResponseEntity.ok(bookService.getCatalog(since));
+    }
+    
     @PutMapping("/{id}/borrow")
     public ResponseEntity<?> borrowBook(@PathVariable Long id) {
         try {
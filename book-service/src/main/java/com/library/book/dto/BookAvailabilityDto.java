@@ -0,0 +1,42 @@
+package com.library.book.dto;
+
+import com.library.book.entity.Book;
+
+/**
+ * One book's availability as pushed on /api/books/availability/stream.
+ */
+public class BookAvailabilityDto {
+
+    private Long id;
+    private String category;
+    private Integer availableCopies;
+    private Integer totalCopies;
+    private Book.BookStatus status;
+
+    public BookAvailabilityDto() {}
+
+    public BookAvailabilityDto(Long id, String category, Integer availableCopies, Integer totalCopies,
+                               Book.BookStatus status) {
+        this.id = id;
+        this.category = category;
+        this.availableCopies = availableCopies;
+        this.totalCopies = totalCopies;
+        this.status = status;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public Integer getAvailableCopies() { return availableCopies; }
+    public void setAvailableCopies(Integer availableCopies) { this.availableCopies = availableCopies; }
+
+    public Integer getTotalCopies() { return totalCopies; }
+    public void setTotalCopies(Integer totalCopies) { this.totalCopies = totalCopies; }
+
+    public Book.BookStatus getStatus() { return status; }
+    public void setStatus(Book.BookStatus status) { this.status = status; }
+}
@@ -0,0 +1,55 @@
+package com.library.book.dto;
+
+import com.library.book.entity.Book;
+
+import java.time.LocalDateTime;
+
+/**
+ * The slice of a book that transaction-service keeps in its local catalog replica:
+ * what a loan copies onto the transaction plus the availability hint.
+ */
+public class BookCatalogEntryDto {
+    
+    private Long id;
+    private String isbn;
+    private String title;
+    private String author;
+    private Integer availableCopies;
+    private Book.BookStatus status;
+    private LocalDateTime updatedAt;
+    
+    public BookCatalogEntryDto() {}
+    
+    public BookCatalogEntryDto(Long id, String isbn, String title, String author, Integer availableCopies,
+                               Book.BookStatus status, LocalDateTime updatedAt) {
+        this.id = id;
+        this.isbn = isbn;
+        this.title = title;
+        this.author = author;
+        this.availableCopies = availableCopies;
+        this.status = status;
+        this.updatedAt = updatedAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getIsbn() { return isbn; }
+    public void setIsbn(String isbn) { this.isbn = isbn; }
+    
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+    
+    public Integer getAvailableCopies() { return availableCopies; }
+    public void setAvailableCopies(Integer availableCopies) { this.availableCopies = availableCopies; }
+    
+    public Book.BookStatus getStatus() { return status; }
+    public void setStatus(Book.BookStatus status) { this.status = status; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,36 @@
+package com.library.book.dto;
+
+/**
+ * A book crossing a subscriber's threshold on /api/books/low-stock/stream.
+ */
+public class LowStockEventDto {
+
+    public enum State { LOW, RECOVERED, REMOVED }
+
+    private Long bookId;
+    private Integer availableCopies;
+    private Integer threshold;
+    private State state;
+
+    public LowStockEventDto() {}
+
+    public LowStockEventDto(Long bookId, Integer availableCopies, Integer threshold, State state) {
+        this.bookId = bookId;
+        this.availableCopies = availableCopies;
+        this.threshold = threshold;
+        this.state = state;
+    }
+
+    // Getters and Setters
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public Integer getAvailableCopies() { return availableCopies; }
+    public void setAvailableCopies(Integer availableCopies) { this.availableCopies = availableCopies; }
+
+    public Integer getThreshold() { return threshold; }
+    public void setThreshold(Integer threshold) { this.threshold = threshold; }
+
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+}
@@ -1,11 +1,16 @@
 package com.library.book.repository;
 
+import com.library.book.dto.BookAvailabilityDto;
+import com.library.book.dto.BookCatalogEntryDto;
 import com.library.book.entity.Book;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -48,6 +53,10 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT b FROM Book b WHERE b.availableCopies <= :threshold")
     List<Book> findLowStockBooks(@Param("threshold") Integer threshold);
     
+    // (id, availableCopies) pairs for building LowStockIndex
+    @Query("SELECT b.id, b.availableCopies FROM Book b")
+    List<Object[]> findAllAvailableCopies();
+    
     // Analytics support methods
     @Query("SELECT COUNT(b) FROM Book b WHERE b.availableCopies > :minCopies")
     long countByAvailableCopiesGreaterThan(@Param("minCopies") int minCopies);
@@ -72,4 +81,40 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     List<Object[]> getRecentlyAddedBooks();
     
     List<Book> findByAvailableCopiesLessThan(int threshold);
+    
+    // Catalog replication for transaction-service: full snapshot, then rows changed since a watermark
+    String CATALOG_PROJECTION = "SELECT new com.library.book.dto.BookCatalogEntryDto(" +
+            "b.id, b.isbn, b.title, b.author, b.availableCopies, b.status, b.updatedAt) FROM Book b ";
+    
+    @Query(CATALOG_PROJECTION)
+    List<BookCatalogEntryDto> findCatalog();
+    
+    @Query(CATALOG_PROJECTION + "WHERE b.updatedAt > :since")
+    List<BookCatalogEntryDto> findCatalogChangedSince(@Param("since") LocalDateTime since);
+    
+    String AVAILABILITY_PROJECTION = "SELECT new com.library.book.dto.BookAvailabilityDto(" +
+            "b.id, b.category, b.availableCopies, b.totalCopies, b.status) FROM Book b ";
+    
+    @Query(AVAILABILITY_PROJECTION + "WHERE b.id IN :ids")
+    List<BookAvailabilityDto> findAvailabilityByIds(@Param("ids") Collection<Long> ids);
+    
+    @Query(AVAILABILITY_PROJECTION + "WHERE LOWER(b.category) = LOWER(:category)")
+    List<BookAvailabilityDto> findAvailabilityByCategory(@Param("category") String category);
+    
+    // Single-statement inventory updates: the row lock makes check-and-decrement atomic, and
+    // updatedAt is bumped by hand since bulk updates bypass @PreUpdate
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1, b.updatedAt = local datetime " +
+           "WHERE b.id = :id AND b.availableCopies > 0 AND b.status = com.library.book.entity.Book.BookStatus.AVAILABLE")
+    int decrementAvailableCopies(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + 1, b.updatedAt = local datetime " +
+           "WHERE b.id = :id AND b.availableCopies < b.totalCopies")
+    int incrementAvailableCopies(@Param("id") Long id);
+    
+    // Net copies handed out by HotBookInventory's permit pool since its last write-back; negative when returns won
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - :borrowed, b.updatedAt = local datetime WHERE b.id = :id")
+    int applyPooledBorrows(@Param("id") Long id, @Param("borrowed") int borrowed);
 }
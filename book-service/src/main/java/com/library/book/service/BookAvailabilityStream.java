@@ -0,0 +1,185 @@
+package com.library.book.service;
+
+import com.library.book.dto.BookAvailabilityDto;
+import com.library.book.repository.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Pushes availableCopies changes to server-sent-event subscribers. Inventory writes only mark a
+ * book as changed; once per library.availability-stream.tick-ms the marked books are read back in
+ * one query and fanned out, so a burst of borrows on one title becomes a single update.
+ * <p>
+ * Subscribers are {@link CoalescingEmitter}s on virtual threads, so a slow client only ever skips
+ * to the latest value per book and never holds up the tick or the other subscribers.
+ */
+@Component
+public class BookAvailabilityStream {
+
+    private static final int QUERY_CHUNK = 500;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private HotBookInventory hotBookInventory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.availability-stream.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    @Value("${library.availability-stream.emitter-timeout-minutes:30}")
+    private long emitterTimeoutMinutes;
+
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    // Each open stream with the filter it was opened with
+    private final Map<CoalescingEmitter<BookAvailabilityDto>, Predicate<BookAvailabilityDto>> subscribers =
+            new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Primary, like findById: a value read from a lagging replica would not be corrected until the next change
+    private TransactionTemplate primaryReads;
+
+    private Counter sentEvents;
+    private Counter skippedValues;
+
+    @PostConstruct
+    void init() {
+        primaryReads = new TransactionTemplate(transactionManager);
+        sentEvents = Counter.builder("library.availability.stream.events")
+                .description("Availability events sent to stream subscribers").register(meterRegistry);
+        skippedValues = Counter.builder("library.availability.stream.skipped")
+                .description("Pending values replaced by a newer one before a slow subscriber took them")
+                .register(meterRegistry);
+        Gauge.builder("library.availability.stream.subscribers", subscribers, Map::size)
+                .description("Open availability streams").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.keySet().forEach(subscriber -> subscriber.emitter().complete());
+        senders.shutdownNow();
+    }
+
+    /**
+     * Opens a stream for the given books and/or category (either may be empty, both empty means
+     * every book). The current values of the filtered books are sent first.
+     *
+     * @throws SubscriberLimitException when library.availability-stream.max-subscribers are open
+     */
+    public SseEmitter subscribe(Set<Long> bookIds, String category) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new SubscriberLimitException("Too many open availability streams, poll instead");
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(emitterTimeoutMinutes));
+        CoalescingEmitter<BookAvailabilityDto> subscriber = new CoalescingEmitter<>(emitter, "availability",
+                BookAvailabilityDto::getId, senders, sentEvents, skippedValues, subscribers::remove);
+        Set<Long> ids = Set.copyOf(bookIds);
+        Predicate<BookAvailabilityDto> filter = value -> (ids.isEmpty() || ids.contains(value.getId()))
+                && (category == null || category.equalsIgnoreCase(value.getCategory()));
+        subscribers.put(subscriber, filter);
+
+        List<BookAvailabilityDto> snapshot;
+        if (!bookIds.isEmpty()) {
+            snapshot = load(bookIds);
+        } else if (category != null) {
+            snapshot = withPooledCounts(primaryReads.execute(status -> bookRepository.findAvailabilityByCategory(category)));
+        } else {
+            snapshot = List.of();
+        }
+        subscriber.offer(snapshot.stream().filter(filter).toList());
+        return emitter;
+    }
+
+    /** Marks bookId for the next tick, once the surrounding transaction (if any) has committed. */
+    public void changed(long bookId) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changed.add(bookId);
+                }
+            });
+        } else {
+            changed.add(bookId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.availability-stream.tick-ms:500}")
+    public void publish() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> iterator = changed.iterator(); iterator.hasNext(); ) {
+            ids.add(iterator.next());
+            iterator.remove();
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        List<BookAvailabilityDto> values = load(ids);
+        subscribers.forEach((subscriber, filter) -> subscriber.offer(values.stream().filter(filter).toList()));
+    }
+
+    @Scheduled(fixedRateString = "${library.availability-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.keySet().forEach(CoalescingEmitter::heartbeat);
+    }
+
+    private List<BookAvailabilityDto> load(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        List<BookAvailabilityDto> values = new ArrayList<>(all.size());
+        for (int from = 0; from < all.size(); from += QUERY_CHUNK) {
+            List<Long> chunk = all.subList(from, Math.min(from + QUERY_CHUNK, all.size()));
+            values.addAll(primaryReads.execute(status -> bookRepository.findAvailabilityByIds(chunk)));
+        }
+        return withPooledCounts(values);
+    }
+
+    // Titles in flash-crowd mode are ahead of their row until the next flush
+    private List<BookAvailabilityDto> withPooledCounts(List<BookAvailabilityDto> values) {
+        for (BookAvailabilityDto value : values) {
+            hotBookInventory.pooledAvailable(value.getId()).ifPresent(value::setAvailableCopies);
+        }
+        return values;
+    }
+
+    public static class SubscriberLimitException extends RuntimeException {
+        public SubscriberLimitException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.library.book.service;
 
+import com.library.book.dto.BookCatalogEntryDto;
 import com.library.book.dto.BookDto;
 import com.library.book.entity.Book;
 import com.library.book.repository.BookRepository;
@@ -13,21 +14,31 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Service
-@Transactional
 public class BookService {
     
+    private static final int INDEXED_LOOKUP_CHUNK = 1000;
+    
     private final BookRepository bookRepository;
+    private final HotBookInventory hotBookInventory;
+    private final BookAvailabilityStream availabilityStream;
+    private final LowStockIndex lowStockIndex;
     
     @Autowired
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, HotBookInventory hotBookInventory,
+                       BookAvailabilityStream availabilityStream, LowStockIndex lowStockIndex) {
         this.bookRepository = bookRepository;
+        this.hotBookInventory = hotBookInventory;
+        this.availabilityStream = availabilityStream;
+        this.lowStockIndex = lowStockIndex;
     }
     
+    @Transactional
     public Book createBook(BookDto bookDto) {
         if (bookRepository.findByIsbn(bookDto.getIsbn()).isPresent()) {
             throw new RuntimeException("Book with ISBN " + bookDto.getIsbn() + " already exists!");
@@ -35,10 +46,12 @@ public class BookService {
         
         Book book = convertDtoToEntity(bookDto);
         Book savedBook = bookRepository.save(book);
+        lowStockIndex.set(savedBook.getId(), savedBook.getAvailableCopies());
         
         return savedBook;
     }
     
+    @Transactional
     public List<Book> createBooksFromCsv(MultipartFile file) throws IOException, CsvException {
         List<Book> books = new ArrayList<>();
         
@@ -74,6 +87,7 @@ public class BookService {
         }
         
         List<Book> savedBooks = bookRepository.saveAll(books);
+        savedBooks.forEach(book -> lowStockIndex.set(book.getId(), book.getAvailableCopies()));
         
         return savedBooks;
     }
@@ -135,129 +149,192 @@ public class BookService {
         }
     }
     
+    // Primary: availability checks in transaction-service borrowBook must see the latest inventory
+    @Transactional
     public Optional<Book> findById(Long id) {
         return bookRepository.findById(id);
     }
     
+    // Primary, like findById: feeds the same availability checks in batches
+    @Transactional
+    public List<Book> findAllByIds(List<Long> ids) {
+        return bookRepository.findAllById(ids);
+    }
+    
+    @Transactional
     public Optional<Book> findByIsbn(String isbn) {
         return bookRepository.findByIsbn(isbn);
     }
     
+    @Transactional(readOnly = true)
     public List<Book> findAllBooks() {
         return bookRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public List<Book> findAvailableBooks() {
         return bookRepository.findAvailableBooks();
     }
     
+    @Transactional(readOnly = true)
     public List<Book> searchBooks(String searchTerm) {
         return bookRepository.searchBooks(searchTerm);
     }
     
+    @Transactional(readOnly = true)
     public List<Book> findBooksByCategory(String category) {
         return bookRepository.findByCategory(category);
     }
     
+    @Transactional(readOnly = true)
     public List<Book> findBooksByAuthor(String author) {
         return bookRepository.findByAuthor(author);
     }
     
+    @Transactional(readOnly = true)
     public List<String> getAllCategories() {
         return bookRepository.findAllCategories();
     }
     
+    @Transactional(readOnly = true)
     public List<String> getAllAuthors() {
         return bookRepository.findAllAuthors();
     }
     
+    @Transactional(readOnly = true)
     public List<String> getAllPublishers() {
         return bookRepository.findAllPublishers();
     }
     
+    @Transactional
     public Book updateBook(Long id, BookDto bookDto) {
+        hotBookInventory.demote(id);
+        availabilityStream.changed(id);
         return bookRepository.findById(id)
                 .map(book -> {
                     updateBookFromDto(book, bookDto);
-                    return bookRepository.save(book);
+                    Book saved = bookRepository.save(book);
+                    lowStockIndex.set(id, saved.getAvailableCopies());
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
     }
     
+    @Transactional
     public Book updateInventory(Long id, Integer totalCopies, Integer availableCopies) {
+        hotBookInventory.demote(id);
+        availabilityStream.changed(id);
         return bookRepository.findById(id)
                 .map(book -> {
                     book.setTotalCopies(totalCopies);
                     book.setAvailableCopies(availableCopies);
-                    return bookRepository.save(book);
+                    Book saved = bookRepository.save(book);
+                    lowStockIndex.set(id, saved.getAvailableCopies());
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
     }
     
+    @Transactional
     public void deleteBook(Long id) {
+        hotBookInventory.demote(id);
         if (!bookRepository.existsById(id)) {
             throw new RuntimeException("Book not found with id: " + id);
         }
         bookRepository.deleteById(id);
+        lowStockIndex.removed(id);
     }
     
+    @Transactional(readOnly = true)
     public List<Book> getLowStockBooks(Integer threshold) {
+        // Only thresholds inside the index's buckets skip the scan
+        if (threshold != null && lowStockIndex.covers(threshold)) {
+            return findIndexed(lowStockIndex.booksAtOrBelow(threshold));
+        }
         return bookRepository.findLowStockBooks(threshold);
     }
     
+    @Transactional(readOnly = true)
     public List<Book> getOutOfStockBooks() {
+        if (lowStockIndex.covers(0)) {
+            return findIndexed(lowStockIndex.booksAtOrBelow(0));
+        }
         return bookRepository.findOutOfStockBooks();
     }
     
+    // Chunked so a long out-of-stock list stays under the driver's bind parameter limit
+    private List<Book> findIndexed(List<Long> ids) {
+        List<Book> books = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += INDEXED_LOOKUP_CHUNK) {
+            books.addAll(bookRepository.findAllById(ids.subList(from, Math.min(from + INDEXED_LOOKUP_CHUNK, ids.size()))));
+        }
+        return books;
+    }
+    
     // Analytics support methods
+    @Transactional(readOnly = true)
     public long getTotalBooksCount() {
         return bookRepository.count();
     }
     
+    @Transactional(readOnly = true)
     public long getAvailableBooksCount() {
         return bookRepository.countByAvailableCopiesGreaterThan(0);
     }
     
+    @Transactional(readOnly = true)
     public long getTotalCopies() {
         return bookRepository.getTotalCopies();
     }
     
+    @Transactional(readOnly = true)
     public long getTotalAvailableCopies() {
         return bookRepository.getTotalAvailableCopies();
     }
     
+    @Transactional(readOnly = true)
     public List<java.util.Map<String, Object>> getBookCountByCategory() {
         return bookRepository.getBookCountByCategory();
     }
     
+    @Transactional(readOnly = true)
     public List<Object[]> getPopularBooks() {
         // Return most available books as popular (placeholder)
         return bookRepository.getPopularBooks();
     }
     
+    @Transactional(readOnly = true)
     public List<Object[]> getRecentlyAddedBooks() {
         return bookRepository.getRecentlyAddedBooks();
     }
     
-    // Book inventory update methods for Transaction Service
+    // Book inventory update methods for Transaction Service.
+    // Not @Transactional: HotBookInventory runs the row update in its own transaction and needs it
+    // committed before it lets a promotion read the row.
     public void borrowBook(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
-        
-        if (!book.isAvailable()) {
+        // Authoritative availability check: the decrement only applies while a copy is left
+        if (!hotBookInventory.borrow(bookId, () -> bookRepository.decrementAvailableCopies(bookId) > 0)) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new RuntimeException("Book not found with id: " + bookId);
+            }
             throw new RuntimeException("Book is not available for borrowing");
         }
-        
-        book.borrowCopy();
-        bookRepository.save(book);
+        availabilityStream.changed(bookId);
+        lowStockIndex.borrowed(bookId);
     }
     
     public void returnBook(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
-        
-        book.returnCopy();
-        bookRepository.save(book);
+        if (hotBookInventory.giveBack(bookId, () -> bookRepository.incrementAvailableCopies(bookId) > 0)) {
+            availabilityStream.changed(bookId);
+            lowStockIndex.returned(bookId);
+        } else if (!bookRepository.existsById(bookId)) {
+            throw new RuntimeException("Book not found with id: " + bookId);
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public List<BookCatalogEntryDto> getCatalog(LocalDateTime since) {
+        return since == null ? bookRepository.findCatalog() : bookRepository.findCatalogChangedSince(since);
     }
     
     private Book convertDtoToEntity(BookDto dto) {
@@ -0,0 +1,130 @@
+package com.library.book.service;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * One SSE subscriber with per-key backpressure: only the latest pending value per key is kept,
+ * and everything pending goes out as a single event the next time the sender gets to it. Sends
+ * run on the given executor, one drain at a time per subscriber, so a slow client skips
+ * intermediate values instead of queueing them or blocking the publisher.
+ */
+final class CoalescingEmitter<V> {
+
+    private final SseEmitter emitter;
+    private final String eventName;
+    private final Function<V, Long> keyOf;
+    private final Executor senders;
+    private final Counter sentEvents;
+    private final Counter skippedValues;
+    private final Consumer<CoalescingEmitter<V>> onClosed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Latest value per key not yet sent; guarded by lock, as are the two flags
+    private final Map<Long, V> pending = new LinkedHashMap<>();
+    private boolean draining;
+    private boolean heartbeatDue;
+
+    CoalescingEmitter(SseEmitter emitter, String eventName, Function<V, Long> keyOf, Executor senders,
+                      Counter sentEvents, Counter skippedValues, Consumer<CoalescingEmitter<V>> onClosed) {
+        this.emitter = emitter;
+        this.eventName = eventName;
+        this.keyOf = keyOf;
+        this.senders = senders;
+        this.sentEvents = sentEvents;
+        this.skippedValues = skippedValues;
+        this.onClosed = onClosed;
+        emitter.onCompletion(() -> onClosed.accept(this));
+        emitter.onError(error -> onClosed.accept(this));
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    void offer(Collection<V> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            for (V value : values) {
+                if (pending.put(keyOf.apply(value), value) != null) {
+                    skippedValues.increment();
+                }
+            }
+            if (!startDraining()) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        senders.execute(this::drain);
+    }
+
+    // Comment lines keep idle streams open through proxies and reveal clients that went away
+    void heartbeat() {
+        lock.lock();
+        try {
+            heartbeatDue = true;
+            if (!startDraining()) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        senders.execute(this::drain);
+    }
+
+    // Caller holds lock; true if the caller must start the sender
+    private boolean startDraining() {
+        if (draining) {
+            return false;
+        }
+        draining = true;
+        return true;
+    }
+
+    private void drain() {
+        while (true) {
+            List<V> batch;
+            lock.lock();
+            try {
+                if (pending.isEmpty() && !heartbeatDue) {
+                    draining = false;
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+                heartbeatDue = false;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                if (batch.isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } else {
+                    emitter.send(SseEmitter.event().name(eventName).data(batch, MediaType.APPLICATION_JSON));
+                    sentEvents.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client gone or emitter already completed; draining stays set so nothing is scheduled again
+                onClosed.accept(this);
+                emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.library.book.service;
+
+import com.library.book.entity.Book;
+import com.library.book.repository.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Flash-crowd mode for borrow and return. A title whose borrow rate crosses
+ * library.hot-books.promote-per-second gets its available copies loaded into an in-memory permit
+ * pool; borrows and returns then move permits with a CAS instead of updating the books row, and
+ * the net change is written back every library.hot-books.flush-interval-ms. Once the rate stays
+ * under demote-per-second for cooldown-seconds the pool is flushed one last time and dropped.
+ * <p>
+ * A pooled borrow is acknowledged before it reaches the row, so a crash loses whatever the last
+ * flush had not written yet and the row comes back with those copies still on the shelf. The
+ * window is bounded in time by flush-interval-ms and in size by max-unflushed: a pool never runs
+ * more than that many net borrows (or returns) ahead of the row, and the claim that would go
+ * past it flushes inline before it is granted. A crash can therefore oversell a title by at most
+ * max-unflushed copies; set it to 1 to make every pooled claim durable before it is acknowledged.
+ * <p>
+ * A striped gate keeps the two modes apart: row updates hold it shared and commit before letting
+ * go, while promotion and demotion hold it exclusively, so the pool always starts from the
+ * committed row and the row is never written directly while a pool owns it. Like the other
+ * in-process state this guards a single instance; with several book-service replicas on one
+ * database set library.hot-books.enabled=false.
+ */
+@Component
+public class HotBookInventory {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotBookInventory.class);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.hot-books.enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.hot-books.promote-per-second:50}")
+    private long promotePerSecond;
+
+    @Value("${library.hot-books.demote-per-second:10}")
+    private long demotePerSecond;
+
+    @Value("${library.hot-books.cooldown-seconds:30}")
+    private long cooldownSeconds;
+
+    @Value("${library.hot-books.evaluate-interval-ms:1000}")
+    private long evaluateIntervalMs;
+
+    @Value("${library.hot-books.gate-stripes:256}")
+    private int gateStripes;
+
+    @Value("${library.hot-books.max-unflushed:50}")
+    private int maxUnflushed;
+
+    private final Map<Long, LongAdder> borrowRequests = new ConcurrentHashMap<>();
+    private final Map<Long, PermitPool> pools = new ConcurrentHashMap<>();
+
+    private ReentrantReadWriteLock[] gates;
+
+    // Always a transaction of its own: a demotion triggered from an admin update must not ride on
+    // that update's commit, or a rollback would lose the flushed delta
+    private TransactionTemplate ownTransaction;
+
+    private Counter pooledOps;
+    private Counter rowOps;
+
+    @PostConstruct
+    void init() {
+        maxUnflushed = Math.max(maxUnflushed, 1);
+        gates = new ReentrantReadWriteLock[Integer.highestOneBit(Math.max(gateStripes, 1))];
+        for (int i = 0; i < gates.length; i++) {
+            gates[i] = new ReentrantReadWriteLock();
+        }
+        ownTransaction = new TransactionTemplate(transactionManager);
+        ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        pooledOps = Counter.builder("library.book.inventory.ops").tag("mode", "pool")
+                .description("Borrows and returns by inventory mode").register(meterRegistry);
+        rowOps = Counter.builder("library.book.inventory.ops").tag("mode", "row")
+                .description("Borrows and returns by inventory mode").register(meterRegistry);
+        Gauge.builder("library.book.inventory.hot", pools, Map::size)
+                .description("Titles currently served from an in-memory permit pool")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one copy of bookId, from its permit pool while the title is hot and otherwise through
+     * rowBorrow, which runs in a transaction committed before this returns.
+     *
+     * @return false if no copy was left
+     */
+    public boolean borrow(long bookId, BooleanSupplier rowBorrow) {
+        if (enabled) {
+            borrowRequests.computeIfAbsent(bookId, id -> new LongAdder()).increment();
+        }
+        return apply(bookId, PermitPool::take, rowBorrow);
+    }
+
+    /** Puts one copy of bookId back; false if every copy was already in. */
+    public boolean giveBack(long bookId, BooleanSupplier rowReturn) {
+        return apply(bookId, PermitPool::release, rowReturn);
+    }
+
+    private boolean apply(long bookId, Function<PermitPool, Outcome> pooled, BooleanSupplier row) {
+        if (!enabled) {
+            return inTransaction(row);
+        }
+        // Lock-free fast path; a closed pool means a demotion is flushing, so wait for it at the gate
+        PermitPool pool = pools.get(bookId);
+        if (pool != null) {
+            Outcome outcome = applyPooled(bookId, pool, pooled);
+            if (outcome != Outcome.CLOSED) {
+                pooledOps.increment();
+                return outcome == Outcome.APPLIED;
+            }
+        }
+        ReentrantReadWriteLock.ReadLock gate = gate(bookId).readLock();
+        gate.lock();
+        try {
+            // Pools are only closed under the exclusive gate, so one seen here is still open
+            pool = pools.get(bookId);
+            if (pool != null) {
+                pooledOps.increment();
+                return applyPooled(bookId, pool, pooled) == Outcome.APPLIED;
+            }
+            rowOps.increment();
+            return inTransaction(row);
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    // A pool that has run max-unflushed claims ahead of the row writes them back before granting more
+    private Outcome applyPooled(long bookId, PermitPool pool, Function<PermitPool, Outcome> pooled) {
+        Outcome outcome;
+        while ((outcome = pooled.apply(pool)) == Outcome.BACKLOG) {
+            pool.flush(bookId);
+        }
+        return outcome;
+    }
+
+    /** Copies left in bookId's permit pool, ahead of the row by up to one flush; empty if the title is not pooled. */
+    public OptionalInt pooledAvailable(long bookId) {
+        PermitPool pool = pools.get(bookId);
+        int level = pool != null ? pool.available.get() : PermitPool.CLOSED;
+        return level == PermitPool.CLOSED ? OptionalInt.empty() : OptionalInt.of(level);
+    }
+
+    @Scheduled(fixedRateString = "${library.hot-books.evaluate-interval-ms:1000}")
+    public void evaluate() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        borrowRequests.forEach((bookId, requests) -> {
+            long perSecond = requests.sumThenReset() * 1000 / Math.max(evaluateIntervalMs, 1);
+            PermitPool pool = pools.get(bookId);
+            try {
+                if (pool == null) {
+                    if (perSecond >= promotePerSecond) {
+                        promote(bookId, perSecond);
+                    } else if (perSecond == 0) {
+                        borrowRequests.remove(bookId, requests);
+                    }
+                } else if (perSecond >= demotePerSecond) {
+                    pool.quietSinceMillis = 0;
+                } else if (pool.quietSinceMillis == 0) {
+                    pool.quietSinceMillis = now;
+                } else if (now - pool.quietSinceMillis >= cooldownSeconds * 1000) {
+                    demote(bookId);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("⚠️ Hot inventory transition failed for book {}: {}", bookId, e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${library.hot-books.flush-interval-ms:200}")
+    public void flush() {
+        pools.forEach((bookId, pool) -> {
+            try {
+                pool.flush(bookId);
+            } catch (RuntimeException e) {
+                // The delta stays pending and goes out with the next flush
+                logger.warn("⚠️ Hot inventory flush failed for book {}: {}", bookId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Writes the pool for bookId back to its row and returns the title to row mode. Admin updates
+     * call this first so they never overwrite copies the pool has handed out.
+     * <p>
+     * Inside a transaction the title is also kept out of the pool until that transaction
+     * completes: the exclusive gate is downgraded to a shared hold that is released after commit
+     * or rollback, so the evaluator cannot promote it again from the row as it was before the
+     * update. A transaction may demote only one title per gate stripe this way.
+     */
+    public void demote(long bookId) {
+        if (!enabled) {
+            return;
+        }
+        ReentrantReadWriteLock stripe = gate(bookId);
+        boolean holdUntilCompletion = TransactionSynchronizationManager.isSynchronizationActive();
+        if (holdUntilCompletion && stripe.getReadHoldCount() > 0) {
+            throw new IllegalStateException("Book " + bookId + " shares a gate stripe with a title this transaction already holds");
+        }
+        if (!holdUntilCompletion && !pools.containsKey(bookId)) {
+            return;
+        }
+        PermitPool pool;
+        stripe.writeLock().lock();
+        try {
+            pool = pools.get(bookId);
+            if (pool != null) {
+                pool.close(bookId);
+                pools.remove(bookId, pool);
+            }
+            if (holdUntilCompletion) {
+                stripe.readLock().lock();
+            }
+        } finally {
+            stripe.writeLock().unlock();
+        }
+        if (holdUntilCompletion) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    stripe.readLock().unlock();
+                }
+            });
+        }
+        if (pool != null) {
+            borrowRequests.remove(bookId);
+            logger.info("🧊 Book {} back to row inventory", bookId);
+        }
+    }
+
+    private void promote(long bookId, long perSecond) {
+        ReentrantReadWriteLock.WriteLock gate = gate(bookId).writeLock();
+        // Busy means a row update or an admin transaction is in flight; try again next evaluation
+        if (!gate.tryLock()) {
+            return;
+        }
+        try {
+            // Every row update for this title has committed by now, and none can start until the pool is in
+            Book book = ownTransaction.execute(status -> bookRepository.findById(bookId).orElse(null));
+            if (book == null || book.getStatus() != Book.BookStatus.AVAILABLE
+                    || book.getAvailableCopies() == null || book.getTotalCopies() == null) {
+                return;
+            }
+            pools.put(bookId, new PermitPool(book.getAvailableCopies(), book.getTotalCopies()));
+            logger.info("🔥 Book {} promoted to pooled inventory at {} borrows/s with {} copies available",
+                       bookId, perSecond, book.getAvailableCopies());
+        } finally {
+            gate.unlock();
+        }
+    }
+
+    private boolean inTransaction(BooleanSupplier work) {
+        return Boolean.TRUE.equals(ownTransaction.execute(status -> work.getAsBoolean()));
+    }
+
+    private ReentrantReadWriteLock gate(long bookId) {
+        long h = bookId * 0x9E3779B97F4A7C15L;
+        return gates[(int) (h ^ (h >>> 32)) & (gates.length - 1)];
+    }
+
+    private enum Outcome { APPLIED, REJECTED, CLOSED, BACKLOG }
+
+    private final class PermitPool {
+
+        private static final int CLOSED = -1;
+
+        private final AtomicInteger available;
+        private final int capacity;
+
+        // The level last written to the row; flushes and the final close never overlap
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private volatile int flushedLevel;
+
+        // Touched by the evaluator only
+        private long quietSinceMillis;
+
+        private PermitPool(int available, int capacity) {
+            this.available = new AtomicInteger(available);
+            this.capacity = capacity;
+            this.flushedLevel = available;
+        }
+
+        private Outcome take() {
+            while (true) {
+                int current = available.get();
+                if (current == CLOSED) {
+                    return Outcome.CLOSED;
+                }
+                if (current == 0) {
+                    return Outcome.REJECTED;
+                }
+                if (flushedLevel - current >= maxUnflushed) {
+                    return Outcome.BACKLOG;
+                }
+                if (available.compareAndSet(current, current - 1)) {
+                    return Outcome.APPLIED;
+                }
+            }
+        }
+
+        private Outcome release() {
+            while (true) {
+                int current = available.get();
+                if (current == CLOSED) {
+                    return Outcome.CLOSED;
+                }
+                if (current >= capacity) {
+                    return Outcome.REJECTED;
+                }
+                if (current - flushedLevel >= maxUnflushed) {
+                    return Outcome.BACKLOG;
+                }
+                if (available.compareAndSet(current, current + 1)) {
+                    return Outcome.APPLIED;
+                }
+            }
+        }
+
+        private void flush(long bookId) {
+            flushLock.lock();
+            try {
+                int level = available.get();
+                if (level != CLOSED) {
+                    writeBack(bookId, level);
+                }
+            } finally {
+                flushLock.unlock();
+            }
+        }
+
+        // Caller holds the exclusive gate, so nothing else reaches the row until this returns
+        private void close(long bookId) {
+            flushLock.lock();
+            try {
+                int level = available.getAndSet(CLOSED);
+                try {
+                    writeBack(bookId, level);
+                } catch (RuntimeException e) {
+                    available.set(level);
+                    throw e;
+                }
+            } finally {
+                flushLock.unlock();
+            }
+        }
+
+        private void writeBack(long bookId, int level) {
+            int borrowed = flushedLevel - level;
+            if (borrowed != 0) {
+                ownTransaction.executeWithoutResult(status -> bookRepository.applyPooledBorrows(bookId, borrowed));
+                flushedLevel = level;
+            }
+        }
+    }
+}
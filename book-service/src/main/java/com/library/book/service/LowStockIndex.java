@@ -0,0 +1,417 @@
+package com.library.book.service;
+
+import com.library.book.dto.BookAvailabilityDto;
+import com.library.book.dto.LowStockEventDto;
+import com.library.book.repository.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process index of books by availableCopies: one bucket of book ids per copy count from 0 to
+ * library.low-stock.max-tracked-copies, so /low-stock and /out-of-stock cost the size of their
+ * answer instead of a table scan. Borrow and return move a book one bucket at a time; admin
+ * writes set the count outright once they commit.
+ * <p>
+ * Threshold subscribers on /low-stock/stream get a LOW event when a book drops to their threshold
+ * and RECOVERED when it climbs back above it. The index is rebuilt from the table every
+ * library.low-stock.resync-minutes, which also catches writes from other instances; with several
+ * book-service replicas expect alerts for those writes to arrive only at the next resync.
+ */
+@Component
+public class LowStockIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockIndex.class);
+
+    private static final int QUERY_CHUNK = 500;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private HotBookInventory hotBookInventory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.low-stock.enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.low-stock.max-tracked-copies:32}")
+    private int maxTrackedCopies;
+
+    @Value("${library.low-stock.max-subscribers:200}")
+    private int maxSubscribers;
+
+    @Value("${library.low-stock.emitter-timeout-minutes:30}")
+    private long emitterTimeoutMinutes;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Guarded by lock. Books above maxTrackedCopies are only in copiesById, which crossings still need
+    private final Map<Long, Integer> copiesById = new HashMap<>();
+    private final List<Set<Long>> buckets = new ArrayList<>();
+    // Books changed while a rebuild reads the table; re-read once the snapshot is in
+    private Set<Long> touchedDuringRebuild;
+
+    private volatile boolean ready;
+
+    private final ConcurrentSkipListMap<Integer, Set<CoalescingEmitter<LowStockEventDto>>> subscribersByThreshold =
+            new ConcurrentSkipListMap<>();
+    private final Map<CoalescingEmitter<LowStockEventDto>, Integer> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Primary: a lagging replica would put just-borrowed books back in their old bucket
+    private TransactionTemplate primaryReads;
+
+    private final Map<LowStockEventDto.State, Counter> crossings = new EnumMap<>(LowStockEventDto.State.class);
+    private Counter sentEvents;
+    private Counter skippedValues;
+
+    @PostConstruct
+    void init() {
+        for (int copies = 0; copies <= maxTrackedCopies; copies++) {
+            buckets.add(new HashSet<>());
+        }
+        primaryReads = new TransactionTemplate(transactionManager);
+        for (LowStockEventDto.State state : LowStockEventDto.State.values()) {
+            crossings.put(state, Counter.builder("library.low-stock.crossings").tag("state", state.name())
+                    .description("Books crossing a subscribed low-stock threshold").register(meterRegistry));
+        }
+        sentEvents = Counter.builder("library.low-stock.stream.events")
+                .description("Low-stock events sent to stream subscribers").register(meterRegistry);
+        skippedValues = Counter.builder("library.low-stock.stream.skipped")
+                .description("Pending low-stock events replaced by a newer one for the same book")
+                .register(meterRegistry);
+        Gauge.builder("library.low-stock.subscribers", subscribers, Map::size)
+                .description("Open low-stock streams").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.keySet().forEach(subscriber -> subscriber.emitter().complete());
+        senders.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            logger.info("Low-stock index disabled, /low-stock queries the database");
+            return;
+        }
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${library.low-stock.resync-minutes:10}",
+               initialDelayString = "${library.low-stock.resync-minutes:10}", timeUnit = TimeUnit.MINUTES)
+    public void resync() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    // Until the index is loaded callers fall back to the database queries
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** True if booksAtOrBelow(threshold) can be answered from the buckets. */
+    public boolean covers(int threshold) {
+        return ready && threshold >= 0 && threshold <= maxTrackedCopies;
+    }
+
+    /** Ids of the books with at most threshold available copies; callers check covers(threshold) first. */
+    public List<Long> booksAtOrBelow(int threshold) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            for (int copies = 0; copies <= threshold; copies++) {
+                ids.addAll(buckets.get(copies));
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void borrowed(long bookId) {
+        afterCommit(() -> adjust(bookId, -1));
+    }
+
+    public void returned(long bookId) {
+        afterCommit(() -> adjust(bookId, 1));
+    }
+
+    /** Records bookId's copy count as written by the surrounding transaction, once it commits. */
+    public void set(long bookId, Integer availableCopies) {
+        afterCommit(() -> apply(bookId, availableCopies));
+    }
+
+    public void removed(long bookId) {
+        afterCommit(() -> apply(bookId, null));
+    }
+
+    /**
+     * Opens a stream of threshold crossings. Books already at or below the threshold are sent as
+     * LOW first.
+     *
+     * @throws BookAvailabilityStream.SubscriberLimitException when library.low-stock.max-subscribers are open
+     */
+    public SseEmitter subscribe(int threshold) {
+        if (!covers(threshold)) {
+            throw new IllegalArgumentException("Threshold must be between 0 and " + maxTrackedCopies);
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new BookAvailabilityStream.SubscriberLimitException("Too many open low-stock streams, poll instead");
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(emitterTimeoutMinutes));
+        CoalescingEmitter<LowStockEventDto> subscriber = new CoalescingEmitter<>(emitter, "low-stock",
+                LowStockEventDto::getBookId, senders, sentEvents, skippedValues, this::unsubscribe);
+        subscribers.put(subscriber, threshold);
+        subscribersByThreshold.computeIfAbsent(threshold, t -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        // Offered under the read lock so no crossing computed after this snapshot can be sent ahead of it
+        lock.readLock().lock();
+        try {
+            List<LowStockEventDto> snapshot = new ArrayList<>();
+            for (int copies = 0; copies <= threshold; copies++) {
+                for (Long bookId : buckets.get(copies)) {
+                    snapshot.add(new LowStockEventDto(bookId, copies, threshold, LowStockEventDto.State.LOW));
+                }
+            }
+            subscriber.offer(snapshot);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedRateString = "${library.low-stock.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.keySet().forEach(CoalescingEmitter::heartbeat);
+    }
+
+    private void unsubscribe(CoalescingEmitter<LowStockEventDto> subscriber) {
+        Integer threshold = subscribers.remove(subscriber);
+        if (threshold != null) {
+            subscribersByThreshold.computeIfPresent(threshold, (t, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private void adjust(long bookId, int delta) {
+        List<LowStockEventDto> events = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.add(bookId);
+            }
+            Integer copies = copiesById.get(bookId);
+            // A book the index has not seen yet is picked up by the next rebuild
+            if (ready && copies != null) {
+                move(bookId, Math.max(copies + delta, 0), events);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publish(events);
+    }
+
+    private void apply(long bookId, Integer availableCopies) {
+        List<LowStockEventDto> events = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.add(bookId);
+            }
+            if (ready) {
+                move(bookId, availableCopies, events);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publish(events);
+    }
+
+    // Caller holds the write lock; null copies removes the book
+    private void move(long bookId, Integer copies, List<LowStockEventDto> events) {
+        if (copies != null) {
+            copies = Math.max(copies, 0);
+        }
+        Integer previous = copies != null ? copiesById.put(bookId, copies) : copiesById.remove(bookId);
+        if (Objects.equals(previous, copies)) {
+            return;
+        }
+        if (previous != null && previous <= maxTrackedCopies) {
+            buckets.get(previous).remove(bookId);
+        }
+        if (copies != null && copies <= maxTrackedCopies) {
+            buckets.get(copies).add(bookId);
+        }
+
+        // A threshold t is crossed when exactly one of the two counts is <= t; absent counts as infinitely many
+        int from = previous != null ? previous : Integer.MAX_VALUE;
+        int to = copies != null ? copies : Integer.MAX_VALUE;
+        for (Integer threshold : subscribersByThreshold.subMap(Math.min(from, to), true, Math.max(from, to), false).keySet()) {
+            LowStockEventDto.State state = copies == null ? LowStockEventDto.State.REMOVED
+                    : to <= threshold ? LowStockEventDto.State.LOW : LowStockEventDto.State.RECOVERED;
+            crossings.get(state).increment();
+            events.add(new LowStockEventDto(bookId, copies, threshold, state));
+        }
+    }
+
+    private void publish(List<LowStockEventDto> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<LowStockEventDto>> byThreshold = new HashMap<>();
+        for (LowStockEventDto event : events) {
+            byThreshold.computeIfAbsent(event.getThreshold(), t -> new ArrayList<>()).add(event);
+        }
+        byThreshold.forEach((threshold, crossed) -> {
+            Set<CoalescingEmitter<LowStockEventDto>> listening = subscribersByThreshold.get(threshold);
+            if (listening != null) {
+                listening.forEach(subscriber -> subscriber.offer(crossed));
+            }
+        });
+    }
+
+    private void rebuild() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                touchedDuringRebuild = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Map<Long, Integer> snapshot;
+            try {
+                snapshot = readAll();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    touchedDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                logger.warn("⚠️ Low-stock index not rebuilt{}: {}", ready ? ", keeping the current one" : "",
+                           e.getMessage());
+                return;
+            }
+
+            List<LowStockEventDto> events = new ArrayList<>();
+            Set<Long> touched;
+            lock.writeLock().lock();
+            try {
+                touched = touchedDuringRebuild;
+                touchedDuringRebuild = null;
+                for (Long bookId : new ArrayList<>(copiesById.keySet())) {
+                    if (!snapshot.containsKey(bookId) && !touched.contains(bookId)) {
+                        move(bookId, null, events);
+                    }
+                }
+                snapshot.forEach((bookId, copies) -> {
+                    if (!touched.contains(bookId)) {
+                        move(bookId, copies, events);
+                    }
+                });
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            publish(events);
+
+            // The snapshot may predate these; their commits are visible now, so read them again
+            List<Long> raced = new ArrayList<>(touched);
+            for (int from = 0; from < raced.size(); from += QUERY_CHUNK) {
+                List<Long> chunk = raced.subList(from, Math.min(from + QUERY_CHUNK, raced.size()));
+                Map<Long, Integer> current = new HashMap<>();
+                for (BookAvailabilityDto book : primaryReads.execute(status -> bookRepository.findAvailabilityByIds(chunk))) {
+                    if (book.getAvailableCopies() != null) {
+                        current.put(book.getId(), pooledOr(book.getId(), book.getAvailableCopies()));
+                    }
+                }
+                chunk.forEach(bookId -> apply(bookId, current.get(bookId)));
+            }
+
+            logger.info("📉 Low-stock index rebuilt: {} books, {} re-read after racing the snapshot, in {} ms",
+                       snapshot.size(), raced.size(), System.currentTimeMillis() - start);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Map<Long, Integer> readAll() {
+        List<Object[]> rows = primaryReads.execute(status -> bookRepository.findAllAvailableCopies());
+        Map<Long, Integer> snapshot = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                snapshot.put((Long) row[0], pooledOr((Long) row[0], (Integer) row[1]));
+            }
+        }
+        return snapshot;
+    }
+
+    // Titles in flash-crowd mode are ahead of their row until the next flush
+    private int pooledOr(long bookId, int rowCopies) {
+        return hotBookInventory.pooledAvailable(bookId).orElse(rowCopies);
+    }
+}
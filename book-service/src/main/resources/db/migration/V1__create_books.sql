@@ -0,0 +1,20 @@
+-- Book service schema, mirrors com.library.book.entity.Book
+CREATE TABLE books (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    isbn             VARCHAR(255) NOT NULL,
+    title            VARCHAR(255) NOT NULL,
+    author           VARCHAR(255) NOT NULL,
+    publisher        VARCHAR(255),
+    publication_year INTEGER,
+    category         VARCHAR(255) NOT NULL,
+    description      TEXT,
+    total_copies     INTEGER      NOT NULL,
+    available_copies INTEGER      NOT NULL,
+    price            NUMERIC(38, 2),
+    language         VARCHAR(255) DEFAULT 'English',
+    pages            INTEGER,
+    status           VARCHAR(255) NOT NULL DEFAULT 'AVAILABLE',
+    created_at       TIMESTAMP(6),
+    updated_at       TIMESTAMP(6),
+    CONSTRAINT uk_books_isbn UNIQUE (isbn)
+);
@@ -0,0 +1,22 @@
+-- Access paths for BookRepository. findByIsbn is covered by the unique constraint.
+
+-- findByCategory, findAllCategories, getBookCountByCategory
+CREATE INDEX idx_books_category ON books (category);
+
+-- findByAuthor, findAllAuthors
+CREATE INDEX idx_books_author ON books (author);
+
+-- findByPublisher, findAllPublishers
+CREATE INDEX idx_books_publisher ON books (publisher);
+
+-- findByPublicationYear
+CREATE INDEX idx_books_publication_year ON books (publication_year);
+
+-- findOutOfStockBooks, findLowStockBooks, findByAvailableCopiesLessThan, countByAvailableCopiesGreaterThan
+CREATE INDEX idx_books_available_copies ON books (available_copies);
+
+-- findAvailableBooks: only the rows it returns
+CREATE INDEX idx_books_available ON books (id) WHERE available_copies > 0 AND status = 'AVAILABLE';
+
+-- getRecentlyAddedBooks
+CREATE INDEX idx_books_created_at ON books (created_at DESC);
@@ -0,0 +1,9 @@
+-- searchBooks matches LOWER(column) LIKE '%term%', which a b-tree cannot serve.
+-- Trigram GIN indexes on the same expressions let Postgres combine them with a BitmapOr.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_books_title_trgm ON books USING gin (lower(title) gin_trgm_ops);
+CREATE INDEX idx_books_author_trgm ON books USING gin (lower(author) gin_trgm_ops);
+CREATE INDEX idx_books_isbn_trgm ON books USING gin (lower(isbn) gin_trgm_ops);
+CREATE INDEX idx_books_category_trgm ON books USING gin (lower(category) gin_trgm_ops);
+CREATE INDEX idx_books_publisher_trgm ON books USING gin (lower(publisher) gin_trgm_ops);
@@ -0,0 +1,8 @@
+-- Pooled sequence ids (allocationSize 50) replace IDENTITY so inserts can be JDBC-batched.
+-- Hibernate's pooled optimizer treats each nextval as the top of a block of 50 ids,
+-- so the sequence is positioned one block above the highest existing id.
+ALTER TABLE books ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE books_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('books_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM books), false);
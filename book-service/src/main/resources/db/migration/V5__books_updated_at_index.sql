@@ -0,0 +1,2 @@
+-- BookRepository.findCatalogChangedSince: transaction-service's catalog replica polls for updated_at > ?
+CREATE INDEX idx_books_updated_at ON books (updated_at);
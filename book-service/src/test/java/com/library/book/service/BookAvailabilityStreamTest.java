@@ -0,0 +1,200 @@
+package com.library.book.service;
+
+import com.library.book.dto.BookAvailabilityDto;
+import com.library.book.entity.Book;
+import com.library.book.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookAvailabilityStreamTest {
+
+    private BookRepository bookRepository;
+    private HotBookInventory hotBookInventory;
+    private BookAvailabilityStream stream;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        hotBookInventory = mock(HotBookInventory.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        // Every requested book exists; even ids are Fiction, odd ones Science
+        when(bookRepository.findAvailabilityByIds(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream().map(BookAvailabilityStreamTest::row).toList());
+
+        stream = new BookAvailabilityStream();
+        ReflectionTestUtils.setField(stream, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(stream, "hotBookInventory", hotBookInventory);
+        ReflectionTestUtils.setField(stream, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(stream, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(stream, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(stream, "emitterTimeoutMinutes", 30L);
+        stream.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        stream.shutdown();
+    }
+
+    @Test
+    void aTickSendsEachSubscriberOnlyTheBooksItAskedFor() {
+        RecordingEmitter byId = subscribe(value -> value.getId() == 1L);
+        RecordingEmitter byCategory = subscribe(value -> "Fiction".equals(value.getCategory()));
+
+        stream.changed(1L);
+        stream.changed(2L);
+        stream.changed(3L);
+        stream.publish();
+
+        assertEquals(List.of(List.of(1L)), byId.events);
+        assertEquals(List.of(List.of(2L)), byCategory.events);
+    }
+
+    @Test
+    void repeatedChangesToOneBookBecomeOneUpdatePerTick() {
+        RecordingEmitter everything = subscribe(value -> true);
+
+        stream.changed(4L);
+        stream.changed(4L);
+        stream.changed(4L);
+        stream.publish();
+        stream.publish();
+
+        assertEquals(List.of(List.of(4L)), everything.events);
+        verify(bookRepository, times(1)).findAvailabilityByIds(anyCollection());
+    }
+
+    @Test
+    void changesInsideATransactionWaitForCommitAndAreDroppedOnRollback() {
+        RecordingEmitter everything = subscribe(value -> true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        stream.changed(5L);
+        stream.changed(6L);
+        stream.publish();
+        assertTrue(everything.events.isEmpty());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.get(0).afterCommit();
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        stream.publish();
+
+        assertEquals(List.of(List.of(5L)), everything.events);
+    }
+
+    @Test
+    void changesWithNobodyListeningAreNotTracked() {
+        stream.changed(7L);
+        stream.publish();
+
+        verify(bookRepository, never()).findAvailabilityByIds(anyCollection());
+    }
+
+    @Test
+    void pooledCountsReplaceTheRowValue() {
+        RecordingEmitter everything = subscribe(value -> true);
+        when(hotBookInventory.pooledAvailable(8L)).thenReturn(OptionalInt.of(1));
+
+        stream.changed(8L);
+        stream.changed(9L);
+        stream.publish();
+
+        assertEquals(1, everything.values.get(8L).getAvailableCopies());
+        assertEquals(3, everything.values.get(9L).getAvailableCopies());
+    }
+
+    @Test
+    void largeTicksAreReadInChunks() {
+        subscribe(value -> true);
+
+        LongStream.rangeClosed(1, 1_200).forEach(stream::changed);
+        stream.publish();
+
+        verify(bookRepository, times(3)).findAvailabilityByIds(anyCollection());
+    }
+
+    @Test
+    void subscribersPastTheLimitAreTurnedAway() {
+        stream.subscribe(Set.of(1L), null);
+        stream.subscribe(Set.of(), "Fiction");
+
+        assertThrows(BookAvailabilityStream.SubscriberLimitException.class,
+                () -> stream.subscribe(Set.of(), null));
+        verify(bookRepository).findAvailabilityByIds(List.of(1L));
+        verify(bookRepository).findAvailabilityByCategory("Fiction");
+    }
+
+    // Registers a subscriber whose sends run inline and are recorded
+    @SuppressWarnings("unchecked")
+    private RecordingEmitter subscribe(Predicate<BookAvailabilityDto> filter) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        Map<CoalescingEmitter<BookAvailabilityDto>, Predicate<BookAvailabilityDto>> subscribers =
+                (Map<CoalescingEmitter<BookAvailabilityDto>, Predicate<BookAvailabilityDto>>)
+                        ReflectionTestUtils.getField(stream, "subscribers");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        subscribers.put(new CoalescingEmitter<>(emitter, "availability", BookAvailabilityDto::getId, Runnable::run,
+                registry.counter("sent"), registry.counter("skipped"), subscribers::remove), filter);
+        return emitter;
+    }
+
+    private static BookAvailabilityDto row(long id) {
+        return new BookAvailabilityDto(id, id % 2 == 0 ? "Fiction" : "Science", 3, 5, Book.BookStatus.AVAILABLE);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        // Book ids per event, and the last value seen per book
+        private final List<List<Long>> events = new ArrayList<>();
+        private final Map<Long, BookAvailabilityDto> values = new HashMap<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof List<?> batch) {
+                    List<Long> ids = new ArrayList<>();
+                    for (Object value : batch) {
+                        BookAvailabilityDto dto = (BookAvailabilityDto) value;
+                        ids.add(dto.getId());
+                        values.put(dto.getId(), dto);
+                    }
+                    events.add(ids);
+                }
+            }
+        }
+    }
+}
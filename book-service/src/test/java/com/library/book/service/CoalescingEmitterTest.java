@@ -0,0 +1,141 @@
+package com.library.book.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoalescingEmitterTest {
+
+    // Sender tasks run only when the test says so, like a client that is slow to read
+    private final Queue<Runnable> senderTasks = new ArrayDeque<>();
+    private final List<CoalescingEmitter<Version>> closed = new ArrayList<>();
+
+    private RecordingEmitter emitter;
+    private Counter sent;
+    private Counter skipped;
+    private CoalescingEmitter<Version> subscriber;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        sent = registry.counter("sent");
+        skipped = registry.counter("skipped");
+        emitter = new RecordingEmitter();
+        subscriber = new CoalescingEmitter<>(emitter, "availability", version -> version.key(), senderTasks::add,
+                sent, skipped, closed::add);
+    }
+
+    @Test
+    void pendingValuesKeepOnlyTheLatestPerKey() {
+        subscriber.offer(List.of(value(1, 1), value(2, 1)));
+        subscriber.offer(List.of(value(1, 2)));
+        subscriber.offer(List.of(value(1, 3), value(3, 1)));
+
+        assertEquals(1, senderTasks.size());
+        runSenders();
+
+        assertEquals(1, emitter.events.size());
+        assertEquals(List.of("1:3", "2:1", "3:1"), emitter.events.get(0));
+        assertEquals(1, sent.count());
+        assertEquals(2, skipped.count());
+    }
+
+    @Test
+    void valuesOfferedAfterADrainGoOutAsTheNextEvent() {
+        subscriber.offer(List.of(value(1, 1)));
+        runSenders();
+        subscriber.offer(List.of(value(1, 2)));
+        runSenders();
+
+        assertEquals(List.of(List.of("1:1"), List.of("1:2")), emitter.events);
+        assertEquals(0, skipped.count());
+    }
+
+    @Test
+    void emptyOffersScheduleNothing() {
+        subscriber.offer(List.of());
+
+        assertTrue(senderTasks.isEmpty());
+    }
+
+    @Test
+    void heartbeatSendsACommentWhenNothingIsPending() {
+        subscriber.heartbeat();
+        subscriber.heartbeat();
+        runSenders();
+
+        assertEquals(List.of(":keep-alive"), emitter.comments);
+        assertTrue(emitter.events.isEmpty());
+    }
+
+    @Test
+    void heartbeatRidesAlongWithPendingValues() {
+        subscriber.offer(List.of(value(1, 1)));
+        subscriber.heartbeat();
+        runSenders();
+
+        assertEquals(1, emitter.events.size());
+        assertTrue(emitter.comments.isEmpty());
+    }
+
+    @Test
+    void aFailedSendClosesTheSubscriberAndStopsScheduling() {
+        emitter.failing = true;
+        subscriber.offer(List.of(value(1, 1)));
+        runSenders();
+
+        assertEquals(List.of(subscriber), closed);
+
+        subscriber.offer(List.of(value(1, 2)));
+        subscriber.heartbeat();
+        assertTrue(senderTasks.isEmpty());
+    }
+
+    private void runSenders() {
+        while (!senderTasks.isEmpty()) {
+            senderTasks.poll().run();
+        }
+    }
+
+    private static Version value(long key, int version) {
+        return new Version(key, version);
+    }
+
+    // One book's value as of some change
+    private record Version(long key, int version) {
+    }
+
+    // Records what would have been written to the client
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<List<String>> events = new ArrayList<>();
+        private final List<String> comments = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof List<?> batch) {
+                    events.add(batch.stream().map(v -> ((Version) v).key() + ":" + ((Version) v).version()).toList());
+                } else if (part.getData() instanceof String text && text.startsWith(":")) {
+                    comments.add(text.strip());
+                }
+            }
+        }
+    }
+}
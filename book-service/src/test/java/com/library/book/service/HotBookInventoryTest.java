@@ -0,0 +1,209 @@
+package com.library.book.service;
+
+import com.library.book.entity.Book;
+import com.library.book.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotBookInventoryTest {
+
+    private static final long BOOK_ID = 42L;
+
+    // Pooled operations must never reach the row
+    private static final BooleanSupplier NO_ROW = () -> {
+        throw new AssertionError("row update while the title is pooled");
+    };
+
+    private BookRepository bookRepository;
+    private HotBookInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+        inventory = new HotBookInventory();
+        ReflectionTestUtils.setField(inventory, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(inventory, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(inventory, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(inventory, "enabled", true);
+        ReflectionTestUtils.setField(inventory, "promotePerSecond", 1L);
+        ReflectionTestUtils.setField(inventory, "demotePerSecond", 0L);
+        ReflectionTestUtils.setField(inventory, "cooldownSeconds", 30L);
+        ReflectionTestUtils.setField(inventory, "evaluateIntervalMs", 1000L);
+        ReflectionTestUtils.setField(inventory, "gateStripes", 16);
+        ReflectionTestUtils.setField(inventory, "maxUnflushed", 50);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void takesPermitsUntilThePoolIsEmpty() {
+        promote(3, 5);
+
+        assertTrue(inventory.borrow(BOOK_ID, NO_ROW));
+        assertTrue(inventory.borrow(BOOK_ID, NO_ROW));
+        assertTrue(inventory.borrow(BOOK_ID, NO_ROW));
+        assertFalse(inventory.borrow(BOOK_ID, NO_ROW));
+        assertEquals(0, inventory.pooledAvailable(BOOK_ID).getAsInt());
+    }
+
+    @Test
+    void releaseStopsAtCapacity() {
+        promote(4, 5);
+
+        assertTrue(inventory.giveBack(BOOK_ID, NO_ROW));
+        assertFalse(inventory.giveBack(BOOK_ID, NO_ROW));
+        assertEquals(5, inventory.pooledAvailable(BOOK_ID).getAsInt());
+    }
+
+    @Test
+    void flushWritesTheNetChangeOnce() {
+        promote(5, 5);
+        inventory.borrow(BOOK_ID, NO_ROW);
+        inventory.borrow(BOOK_ID, NO_ROW);
+        inventory.borrow(BOOK_ID, NO_ROW);
+        inventory.giveBack(BOOK_ID, NO_ROW);
+
+        inventory.flush();
+        inventory.flush();
+
+        verify(bookRepository, times(1)).applyPooledBorrows(BOOK_ID, 2);
+        verify(bookRepository, times(1)).applyPooledBorrows(eq(BOOK_ID), anyInt());
+    }
+
+    @Test
+    void closeWritesBackAndReturnsTheTitleToTheRow() {
+        promote(3, 5);
+        inventory.borrow(BOOK_ID, NO_ROW);
+
+        inventory.demote(BOOK_ID);
+
+        verify(bookRepository).applyPooledBorrows(BOOK_ID, 1);
+        assertTrue(inventory.pooledAvailable(BOOK_ID).isEmpty());
+        AtomicInteger rowBorrows = new AtomicInteger();
+        assertTrue(inventory.borrow(BOOK_ID, () -> rowBorrows.incrementAndGet() > 0));
+        assertEquals(1, rowBorrows.get());
+    }
+
+    @Test
+    void claimPastMaxUnflushedIsWrittenBeforeItIsGranted() {
+        ReflectionTestUtils.setField(inventory, "maxUnflushed", 2);
+        promote(5, 5);
+
+        inventory.borrow(BOOK_ID, NO_ROW);
+        inventory.borrow(BOOK_ID, NO_ROW);
+        verify(bookRepository, never()).applyPooledBorrows(eq(BOOK_ID), anyInt());
+
+        inventory.borrow(BOOK_ID, NO_ROW);
+        verify(bookRepository).applyPooledBorrows(BOOK_ID, 2);
+        assertEquals(2, inventory.pooledAvailable(BOOK_ID).getAsInt());
+    }
+
+    @Test
+    void concurrentBorrowsNeverHandOutMoreThanTheRowHad() throws Exception {
+        ReflectionTestUtils.setField(inventory, "maxUnflushed", 7);
+        promote(100, 100);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int granted = 0;
+                for (int i = 0; i < 50; i++) {
+                    if (inventory.borrow(BOOK_ID, NO_ROW)) {
+                        granted++;
+                    }
+                }
+                return granted;
+            }));
+        }
+        start.countDown();
+        int granted = 0;
+        for (Future<Integer> result : results) {
+            granted += result.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        inventory.demote(BOOK_ID);
+
+        assertEquals(100, granted);
+        ArgumentCaptor<Integer> written = ArgumentCaptor.forClass(Integer.class);
+        verify(bookRepository, atLeastOnce()).applyPooledBorrows(eq(BOOK_ID), written.capture());
+        assertEquals(100, written.getAllValues().stream().mapToInt(Integer::intValue).sum());
+        assertTrue(written.getAllValues().stream().allMatch(borrowed -> borrowed <= 7));
+    }
+
+    @Test
+    void demoteInsideATransactionBlocksPromotionUntilItCompletes() {
+        promote(3, 5);
+        TransactionSynchronizationManager.initSynchronization();
+
+        inventory.demote(BOOK_ID);
+        inventory.borrow(BOOK_ID, () -> true);
+        inventory.evaluate();
+        assertTrue(inventory.pooledAvailable(BOOK_ID).isEmpty());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        inventory.borrow(BOOK_ID, () -> true);
+        inventory.evaluate();
+        assertTrue(inventory.pooledAvailable(BOOK_ID).isPresent());
+    }
+
+    // One row borrow at the promote rate, then an evaluation that loads the pool from the row
+    private void promote(int available, int total) {
+        Book book = new Book("978-0134685991", "Effective Java", "Joshua Bloch", "Programming", total);
+        book.setId(BOOK_ID);
+        book.setAvailableCopies(available);
+        book.setStatus(Book.BookStatus.AVAILABLE);
+        when(bookRepository.findById(BOOK_ID)).thenReturn(Optional.of(book));
+
+        inventory.init();
+        inventory.borrow(BOOK_ID, () -> true);
+        inventory.evaluate();
+        assertEquals(available, inventory.pooledAvailable(BOOK_ID).getAsInt());
+    }
+}
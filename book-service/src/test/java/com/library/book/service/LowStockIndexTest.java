@@ -0,0 +1,262 @@
+package com.library.book.service;
+
+import com.library.book.dto.BookAvailabilityDto;
+import com.library.book.dto.LowStockEventDto;
+import com.library.book.entity.Book;
+import com.library.book.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LowStockIndexTest {
+
+    private static final int MAX_TRACKED = 8;
+
+    private BookRepository bookRepository;
+    private LowStockIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+        index = new LowStockIndex();
+        ReflectionTestUtils.setField(index, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(index, "hotBookInventory", mock(HotBookInventory.class));
+        ReflectionTestUtils.setField(index, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(index, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "maxTrackedCopies", MAX_TRACKED);
+        ReflectionTestUtils.setField(index, "maxSubscribers", 10);
+        ReflectionTestUtils.setField(index, "emitterTimeoutMinutes", 30L);
+        index.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        index.shutdown();
+    }
+
+    @Test
+    void loadsBucketsFromTheTable() {
+        load(new Object[]{1L, 0}, new Object[]{2L, 2}, new Object[]{3L, 5}, new Object[]{4L, 40}, new Object[]{5L, null});
+
+        assertTrue(index.isReady());
+        assertEquals(Set.of(1L), Set.copyOf(index.booksAtOrBelow(0)));
+        assertEquals(Set.of(1L, 2L), Set.copyOf(index.booksAtOrBelow(4)));
+        assertEquals(Set.of(1L, 2L, 3L), Set.copyOf(index.booksAtOrBelow(MAX_TRACKED)));
+        assertTrue(index.covers(MAX_TRACKED));
+        assertFalse(index.covers(MAX_TRACKED + 1));
+        assertFalse(index.covers(-1));
+    }
+
+    @Test
+    void borrowAndReturnCrossOnlyTheThresholdBetweenTheCounts() {
+        load(new Object[]{1L, 3});
+        RecordingEmitter atOne = subscribe(1);
+        RecordingEmitter atTwo = subscribe(2);
+        RecordingEmitter atThree = subscribe(3);
+
+        index.borrowed(1L);
+        assertEquals(List.of("1:2@2 LOW"), atTwo.events);
+        assertTrue(atOne.events.isEmpty());
+        assertTrue(atThree.events.isEmpty());
+        assertEquals(List.of(1L), index.booksAtOrBelow(2));
+
+        index.returned(1L);
+        assertEquals(List.of("1:2@2 LOW", "1:3@2 RECOVERED"), atTwo.events);
+        assertTrue(atOne.events.isEmpty());
+        assertTrue(atThree.events.isEmpty());
+        assertTrue(index.booksAtOrBelow(2).isEmpty());
+    }
+
+    @Test
+    void borrowingAtZeroStaysAtZero() {
+        load(new Object[]{1L, 0});
+        RecordingEmitter atZero = subscribe(0);
+
+        index.borrowed(1L);
+
+        assertTrue(atZero.events.isEmpty());
+        assertEquals(List.of(1L), index.booksAtOrBelow(0));
+    }
+
+    @Test
+    void aLargeSetCrossesEveryThresholdInBetween() {
+        load(new Object[]{1L, 6});
+        RecordingEmitter atZero = subscribe(0);
+        RecordingEmitter atFive = subscribe(5);
+        RecordingEmitter atSix = subscribe(6);
+
+        index.set(1L, 0);
+        index.set(1L, 6);
+
+        assertEquals(List.of("1:0@0 LOW", "1:6@0 RECOVERED"), atZero.events);
+        assertEquals(List.of("1:0@5 LOW", "1:6@5 RECOVERED"), atFive.events);
+        assertTrue(atSix.events.isEmpty());
+    }
+
+    @Test
+    void untrackedCountsStillCrossThresholds() {
+        load(new Object[]{1L, 40});
+        RecordingEmitter atEight = subscribe(MAX_TRACKED);
+
+        index.set(1L, 50);
+        assertTrue(atEight.events.isEmpty());
+
+        index.set(1L, 1);
+        assertEquals(List.of("1:1@8 LOW"), atEight.events);
+        assertEquals(List.of(1L), index.booksAtOrBelow(1));
+    }
+
+    @Test
+    void newBooksAreLowForThresholdsAtOrAboveTheirCount() {
+        load();
+        RecordingEmitter atOne = subscribe(1);
+        RecordingEmitter atTwo = subscribe(2);
+
+        index.set(9L, 2);
+
+        assertTrue(atOne.events.isEmpty());
+        assertEquals(List.of("9:2@2 LOW"), atTwo.events);
+    }
+
+    @Test
+    void removedBooksLeaveEveryThresholdTheyWereUnder() {
+        load(new Object[]{1L, 2});
+        RecordingEmitter atOne = subscribe(1);
+        RecordingEmitter atTwo = subscribe(2);
+        RecordingEmitter atFour = subscribe(4);
+
+        index.removed(1L);
+
+        assertTrue(atOne.events.isEmpty());
+        assertEquals(List.of("1:null@2 REMOVED"), atTwo.events);
+        assertEquals(List.of("1:null@4 REMOVED"), atFour.events);
+        assertTrue(index.booksAtOrBelow(MAX_TRACKED).isEmpty());
+    }
+
+    @Test
+    void changesForBooksTheIndexHasNotSeenWaitForTheNextRebuild() {
+        load();
+
+        index.borrowed(7L);
+
+        assertTrue(index.booksAtOrBelow(MAX_TRACKED).isEmpty());
+    }
+
+    @Test
+    void changesWaitForCommitAndAreDroppedOnRollback() {
+        load(new Object[]{1L, 3}, new Object[]{2L, 3});
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.set(1L, 0);
+        index.set(2L, 0);
+        assertTrue(index.booksAtOrBelow(0).isEmpty());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.get(0).afterCommit();
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(List.of(1L), index.booksAtOrBelow(0));
+    }
+
+    @Test
+    void resyncDropsDeletedBooksAndRereadsBooksThatRacedTheSnapshot() {
+        load(new Object[]{1L, 1}, new Object[]{2L, 1});
+        RecordingEmitter atOne = subscribe(1);
+        // Book 2 is borrowed while the snapshot is read, so the snapshot's 1 is stale
+        when(bookRepository.findAllAvailableCopies()).thenAnswer(invocation -> {
+            index.borrowed(2L);
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[]{2L, 1});
+            return rows;
+        });
+        when(bookRepository.findAvailabilityByIds(anyCollection())).thenReturn(List.of(
+                new BookAvailabilityDto(2L, "Fiction", 0, 5, Book.BookStatus.AVAILABLE)));
+
+        index.resync();
+
+        assertEquals(List.of("1:null@1 REMOVED"), atOne.events);
+        assertEquals(List.of(2L), index.booksAtOrBelow(0));
+    }
+
+    @Test
+    void subscribeRejectsThresholdsOutsideTheBuckets() {
+        load();
+
+        assertThrows(IllegalArgumentException.class, () -> index.subscribe(MAX_TRACKED + 1));
+        assertThrows(IllegalArgumentException.class, () -> index.subscribe(-1));
+    }
+
+    private void load(Object[]... books) {
+        when(bookRepository.findAllAvailableCopies()).thenReturn(new ArrayList<>(List.of(books)));
+        index.load();
+    }
+
+    // Registers a subscriber whose sends run inline and are recorded
+    @SuppressWarnings("unchecked")
+    private RecordingEmitter subscribe(int threshold) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        Map<CoalescingEmitter<LowStockEventDto>, Integer> subscribers =
+                (Map<CoalescingEmitter<LowStockEventDto>, Integer>) ReflectionTestUtils.getField(index, "subscribers");
+        ConcurrentSkipListMap<Integer, Set<CoalescingEmitter<LowStockEventDto>>> byThreshold =
+                (ConcurrentSkipListMap<Integer, Set<CoalescingEmitter<LowStockEventDto>>>)
+                        ReflectionTestUtils.getField(index, "subscribersByThreshold");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CoalescingEmitter<LowStockEventDto> subscriber = new CoalescingEmitter<>(emitter, "low-stock",
+                LowStockEventDto::getBookId, Runnable::run, registry.counter("sent"), registry.counter("skipped"),
+                subscribers::remove);
+        subscribers.put(subscriber, threshold);
+        byThreshold.computeIfAbsent(threshold, t -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        return emitter;
+    }
+
+    // Events as "book:copies@threshold STATE"
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof List<?> batch) {
+                    for (Object value : batch) {
+                        LowStockEventDto event = (LowStockEventDto) value;
+                        events.add(event.getBookId() + ":" + event.getAvailableCopies() + "@"
+                                + event.getThreshold() + " " + event.getState());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.library.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Issues the weighted GET mix against the gateway in one of two workload models:
+ * <ul>
+ *   <li>open: requests arrive at a constant rate, whether or not earlier ones have completed
+ *       (bounded only by --max-in-flight)</li>
+ *   <li>closed: a fixed number of users, each sending its next request once the previous
+ *       one has completed, with an optional think time in between</li>
+ * </ul>
+ */
+public class LoadDriver {
+
+    private final LoadTestConfig config;
+    private final HttpClient httpClient;
+    private final List<WeightedEndpoint> endpoints;
+    private final Map<WeightedEndpoint, HttpRequest> requests = new HashMap<>();
+    private final int totalWeight;
+    private final AtomicLong requestIds = new AtomicLong();
+
+    public LoadDriver(LoadTestConfig config, HttpClient httpClient, String token) {
+        this.config = config;
+        this.httpClient = httpClient;
+        this.endpoints = config.getEndpoints();
+        this.totalWeight = endpoints.stream().mapToInt(WeightedEndpoint::getWeight).sum();
+        for (WeightedEndpoint endpoint : endpoints) {
+            requests.put(endpoint, HttpRequest.newBuilder(URI.create(config.getBaseUrl() + endpoint.getPath()))
+                    .timeout(config.getRequestTimeout())
+                    .header("Authorization", "Bearer " + token)
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build());
+        }
+    }
+
+    public LoadTestResults run(Duration duration, long expectedIntervalMicros) throws InterruptedException {
+        LoadTestResults results = new LoadTestResults(expectedIntervalMicros);
+        results.start();
+        if (config.getModel() == LoadTestConfig.Model.OPEN) {
+            runOpen(duration, results);
+        } else {
+            runClosed(duration, results);
+        }
+        results.finish();
+        return results;
+    }
+
+    private void runOpen(Duration duration, LoadTestResults results) throws InterruptedException {
+        long intervalNanos = (long) (1_000_000_000L / config.getRatePerSecond());
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        Semaphore inFlight = new Semaphore(config.getMaxInFlight());
+
+        for (long scheduledAt = start; scheduledAt < end; scheduledAt += intervalNanos) {
+            long wait = scheduledAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquire();
+
+            // Latency is measured from the schedule, not from the send, so a late send still counts
+            long intendedStart = scheduledAt;
+            long sentAt = System.nanoTime();
+            long requestId = requestIds.incrementAndGet();
+            WeightedEndpoint endpoint = pickEndpoint();
+            httpClient.sendAsync(requests.get(endpoint), HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, error) -> {
+                        long now = System.nanoTime();
+                        results.record(endpoint, requestId, response, error, now - intendedStart, now - sentAt);
+                        inFlight.release();
+                    });
+        }
+
+        // Wait for the stragglers
+        inFlight.acquire(config.getMaxInFlight());
+        inFlight.release(config.getMaxInFlight());
+    }
+
+    private void runClosed(Duration duration, LoadTestResults results) {
+        long end = System.nanoTime() + duration.toNanos();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.getUsers(); i++) {
+                users.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        WeightedEndpoint endpoint = pickEndpoint();
+                        long requestId = requestIds.incrementAndGet();
+                        long sentAt = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = httpClient.send(requests.get(endpoint),
+                                    HttpResponse.BodyHandlers.ofByteArray());
+                            long elapsed = System.nanoTime() - sentAt;
+                            results.record(endpoint, requestId, response, null, elapsed, elapsed);
+                        } catch (IOException e) {
+                            long elapsed = System.nanoTime() - sentAt;
+                            results.record(endpoint, requestId, null, e, elapsed, elapsed);
+                        }
+                        if (config.getThinkTimeMs() > 0) {
+                            Thread.sleep(config.getThinkTimeMs());
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private WeightedEndpoint pickEndpoint() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (WeightedEndpoint endpoint : endpoints) {
+            pick -= endpoint.getWeight();
+            if (pick < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(0);
+    }
+}
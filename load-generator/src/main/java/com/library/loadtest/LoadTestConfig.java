@@ -0,0 +1,99 @@
+package com.library.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options of the load generator, given as --name=value (flags as --name).
+ */
+public class LoadTestConfig {
+
+    public enum Model { OPEN, CLOSED }
+
+    private String baseUrl = "http://localhost:8080";
+    private Model model = Model.OPEN;
+    private double ratePerSecond = 10;
+    private int users = 50;
+    private long thinkTimeMs = 100;
+    private long expectedIntervalMs = 0;
+    private Duration duration = Duration.ofMinutes(2);
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration requestTimeout = Duration.ofSeconds(60);
+    private int maxInFlight = 2000;
+    private List<WeightedEndpoint> endpoints = WeightedEndpoint.parse("dashboard");
+    private String loginUrl;
+    private String username = "admin";
+    private String password = "admin123";
+    private String token;
+    private String jwtSecret;
+    private boolean stubPeers;
+    private boolean stubsOnly;
+    private int stubBasePort = 18081;
+    private long stubLatencyMs = 20;
+    private Path outputDir = Path.of("load-test");
+    private String reportName = "analytics-microservices";
+
+    public static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String[] pair = arg.substring(2).split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+
+        LoadTestConfig config = new LoadTestConfig();
+        config.baseUrl = options.getOrDefault("base-url", config.baseUrl);
+        config.model = Model.valueOf(options.getOrDefault("model", "open").toUpperCase());
+        config.ratePerSecond = Double.parseDouble(options.getOrDefault("rate", String.valueOf(config.ratePerSecond)));
+        config.users = Integer.parseInt(options.getOrDefault("users", String.valueOf(config.users)));
+        config.thinkTimeMs = Long.parseLong(options.getOrDefault("think-time-ms", String.valueOf(config.thinkTimeMs)));
+        config.expectedIntervalMs = Long.parseLong(options.getOrDefault("expected-interval-ms", "0"));
+        config.duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-seconds", "120")));
+        config.warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup-seconds", "10")));
+        config.requestTimeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout-seconds", "60")));
+        config.maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", String.valueOf(config.maxInFlight)));
+        if (options.containsKey("endpoints")) {
+            config.endpoints = WeightedEndpoint.parse(options.get("endpoints"));
+        }
+        config.loginUrl = options.getOrDefault("login-url", config.baseUrl);
+        config.username = options.getOrDefault("username", config.username);
+        config.password = options.getOrDefault("password", config.password);
+        config.token = options.get("token");
+        config.jwtSecret = options.get("jwt-secret");
+        config.stubPeers = Boolean.parseBoolean(options.getOrDefault("stub-peers", "false"));
+        config.stubsOnly = Boolean.parseBoolean(options.getOrDefault("stubs-only", "false"));
+        config.stubBasePort = Integer.parseInt(options.getOrDefault("stub-base-port", String.valueOf(config.stubBasePort)));
+        config.stubLatencyMs = Long.parseLong(options.getOrDefault("stub-latency-ms", String.valueOf(config.stubLatencyMs)));
+        config.outputDir = Path.of(options.getOrDefault("output-dir", config.outputDir.toString()));
+        config.reportName = options.getOrDefault("report-name", config.reportName);
+        return config;
+    }
+
+    public String getBaseUrl() { return baseUrl; }
+    public Model getModel() { return model; }
+    public double getRatePerSecond() { return ratePerSecond; }
+    public int getUsers() { return users; }
+    public long getThinkTimeMs() { return thinkTimeMs; }
+    public long getExpectedIntervalMs() { return expectedIntervalMs; }
+    public Duration getDuration() { return duration; }
+    public Duration getWarmup() { return warmup; }
+    public Duration getRequestTimeout() { return requestTimeout; }
+    public int getMaxInFlight() { return maxInFlight; }
+    public List<WeightedEndpoint> getEndpoints() { return endpoints; }
+    public String getLoginUrl() { return loginUrl; }
+    public String getUsername() { return username; }
+    public String getPassword() { return password; }
+    public String getToken() { return token; }
+    public String getJwtSecret() { return jwtSecret; }
+    public boolean isStubPeers() { return stubPeers; }
+    public boolean isStubsOnly() { return stubsOnly; }
+    public int getStubBasePort() { return stubBasePort; }
+    public long getStubLatencyMs() { return stubLatencyMs; }
+    public Path getOutputDir() { return outputDir; }
+    public String getReportName() { return reportName; }
+}
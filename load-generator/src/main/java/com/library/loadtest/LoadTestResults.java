@@ -0,0 +1,107 @@
+package com.library.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and outcome recording for one run.
+ * Two HdrHistograms are kept: response time, which is corrected for coordinated omission,
+ * and raw service time measured from the actual send. In the open model, response time
+ * runs from the request's scheduled start, so queueing behind a stalled server is counted.
+ * In the closed model, the HdrHistogram expected-interval correction back-fills the
+ * samples that stalled users failed to send.
+ */
+public class LoadTestResults {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Recorder responseTimeRecorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Recorder serviceTimeRecorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final ConcurrentLinkedQueue<RequestResult> requests = new ConcurrentLinkedQueue<>();
+    private final AtomicLong successCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final long expectedIntervalMicros;
+
+    private long startedAtNanos;
+    private long finishedAtNanos;
+    private Histogram responseTimes;
+    private Histogram serviceTimes;
+
+    public LoadTestResults(long expectedIntervalMicros) {
+        this.expectedIntervalMicros = expectedIntervalMicros;
+    }
+
+    public void start() {
+        startedAtNanos = System.nanoTime();
+    }
+
+    /**
+     * @param responseNanos latency as seen by the user (from the scheduled start in the open model)
+     * @param serviceNanos  latency from the moment the request was actually sent
+     */
+    public void record(WeightedEndpoint endpoint, long requestId, HttpResponse<byte[]> response, Throwable error,
+                       long responseNanos, long serviceNanos) {
+        long responseMicros = Math.min(TimeUnit.NANOSECONDS.toMicros(responseNanos), HIGHEST_TRACKABLE_MICROS);
+        long serviceMicros = Math.min(TimeUnit.NANOSECONDS.toMicros(serviceNanos), HIGHEST_TRACKABLE_MICROS);
+
+        if (expectedIntervalMicros > 0) {
+            responseTimeRecorder.recordValueWithExpectedInterval(responseMicros, expectedIntervalMicros);
+        } else {
+            responseTimeRecorder.recordValue(responseMicros);
+        }
+        serviceTimeRecorder.recordValue(serviceMicros);
+
+        boolean success = error == null && response.statusCode() >= 200 && response.statusCode() < 300;
+        long dataSize = response != null && response.body() != null ? response.body().length : 0;
+        String message = null;
+        if (error != null) {
+            message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        } else if (!success) {
+            message = "HTTP " + response.statusCode();
+        }
+
+        if (success) {
+            successCount.incrementAndGet();
+            totalBytes.addAndGet(dataSize);
+        } else {
+            errorCount.incrementAndGet();
+        }
+        requests.add(new RequestResult(requestId, endpoint.getName(), LocalDateTime.now(),
+                TimeUnit.MICROSECONDS.toMillis(responseMicros), success, success ? dataSize : 0, message));
+    }
+
+    public void finish() {
+        finishedAtNanos = System.nanoTime();
+        responseTimes = responseTimeRecorder.getIntervalHistogram();
+        serviceTimes = serviceTimeRecorder.getIntervalHistogram();
+    }
+
+    public Histogram getResponseTimes() { return responseTimes; }
+    public Histogram getServiceTimes() { return serviceTimes; }
+    public List<RequestResult> getRequests() { return new ArrayList<>(requests); }
+    public long getSuccessCount() { return successCount.get(); }
+    public long getErrorCount() { return errorCount.get(); }
+    public long getTotalRequests() { return successCount.get() + errorCount.get(); }
+
+    public double getElapsedSeconds() {
+        return (finishedAtNanos - startedAtNanos) / 1_000_000_000.0;
+    }
+
+    public double getThroughput() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? getTotalRequests() / elapsed : 0;
+    }
+
+    public double getAverageDataSize() {
+        return successCount.get() > 0 ? (double) totalBytes.get() / successCount.get() : 0;
+    }
+}
@@ -0,0 +1,74 @@
+package com.library.loadtest;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+/**
+ * Entry point of load-generator.jar.
+ *
+ * <pre>
+ * # open model, 20 req/s against the gateway for 5 minutes
+ * java -jar load-generator.jar --model=open --rate=20 --duration-seconds=300
+ *
+ * # closed model, 50 users with 100 ms think time, analytics request mix
+ * java -jar load-generator.jar --model=closed --users=50 --endpoints=analytics-mix
+ *
+ * # analytics-service alone against stub peers (start the service with --spring.profiles.active=isolated)
+ * java -jar load-generator.jar --stub-peers --base-url=http://localhost:8084 \
+ *      --jwt-secret=LibraryManagementSecretKey20241234567890
+ * </pre>
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+
+        StubPeers stubPeers = null;
+        if (config.isStubPeers()) {
+            stubPeers = new StubPeers(config.getStubBasePort(), config.getStubLatencyMs());
+            stubPeers.start();
+            if (config.isStubsOnly()) {
+                System.out.println("Serving stubs only, press Ctrl+C to stop");
+                StubPeers running = stubPeers;
+                Runtime.getRuntime().addShutdownHook(new Thread(running::stop));
+                new CountDownLatch(1).await();
+            }
+        }
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        try {
+            String token = new TokenProvider().obtain(config, httpClient);
+            System.out.println("[+] Token acquired");
+
+            LoadDriver driver = new LoadDriver(config, httpClient, token);
+            long expectedIntervalMicros = 0;
+            if (!config.getWarmup().isZero()) {
+                System.out.println("Warming up for " + config.getWarmup().toSeconds() + " seconds...");
+                LoadTestResults warmup = driver.run(config.getWarmup(), 0);
+                // Closed model: a user is expected to send every (typical latency + think time)
+                if (config.getModel() == LoadTestConfig.Model.CLOSED && config.getExpectedIntervalMs() == 0) {
+                    expectedIntervalMicros = (long) warmup.getServiceTimes().getMean() + config.getThinkTimeMs() * 1000;
+                }
+            }
+            if (config.getModel() == LoadTestConfig.Model.CLOSED && config.getExpectedIntervalMs() > 0) {
+                expectedIntervalMicros = config.getExpectedIntervalMs() * 1000;
+            }
+
+            System.out.println("Starting " + config.getModel().name().toLowerCase() + "-model load test for "
+                    + config.getDuration().toSeconds() + " seconds...");
+            LoadTestResults results = driver.run(config.getDuration(), expectedIntervalMicros);
+            new ResultWriter(config).write(results);
+        } finally {
+            if (stubPeers != null) {
+                stubPeers.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.library.loadtest;
+
+import java.time.LocalDateTime;
+
+/**
+ * One request as written to the results CSV.
+ */
+public class RequestResult {
+
+    private final long requestId;
+    private final String endpoint;
+    private final LocalDateTime timestamp;
+    private final long responseTimeMs;
+    private final boolean success;
+    private final long dataSize;
+    private final String error;
+
+    public RequestResult(long requestId, String endpoint, LocalDateTime timestamp, long responseTimeMs,
+                         boolean success, long dataSize, String error) {
+        this.requestId = requestId;
+        this.endpoint = endpoint;
+        this.timestamp = timestamp;
+        this.responseTimeMs = responseTimeMs;
+        this.success = success;
+        this.dataSize = dataSize;
+        this.error = error;
+    }
+
+    public long getRequestId() { return requestId; }
+    public String getEndpoint() { return endpoint; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public long getResponseTimeMs() { return responseTimeMs; }
+    public boolean isSuccess() { return success; }
+    public long getDataSize() { return dataSize; }
+    public String getError() { return error; }
+}
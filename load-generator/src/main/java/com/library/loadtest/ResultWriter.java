@@ -0,0 +1,201 @@
+package com.library.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Writes a run in the same shape as the PowerShell scripts so old and new results can be
+ * compared directly:
+ * <ul>
+ *   <li>&lt;name&gt;-load-test-results-&lt;ts&gt;.csv with the RequestId, Timestamp, ResponseTime,
+ *       Status, DataSize and Error columns</li>
+ *   <li>&lt;name&gt;-performance-report-&lt;ts&gt;.txt with the same sections as the existing reports</li>
+ * </ul>
+ * It also writes a JSON summary and an HdrHistogram percentile distribution (.hgrm).
+ */
+public class ResultWriter {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final DateTimeFormatter CSV_TIMESTAMP = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss");
+    private static final DateTimeFormatter REPORT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public ResultWriter(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public void write(LoadTestResults results) throws IOException {
+        Files.createDirectories(config.getOutputDir());
+        String timestamp = LocalDateTime.now().format(FILE_TIMESTAMP);
+        String prefix = config.getReportName();
+
+        Path csvPath = config.getOutputDir().resolve(prefix + "-load-test-results-" + timestamp + ".csv");
+        Path reportPath = config.getOutputDir().resolve(prefix + "-performance-report-" + timestamp + ".txt");
+        Path jsonPath = config.getOutputDir().resolve(prefix + "-load-test-summary-" + timestamp + ".json");
+        Path histogramPath = config.getOutputDir().resolve(prefix + "-latency-" + timestamp + ".hgrm");
+
+        writeCsv(results, csvPath);
+        objectMapper.writeValue(jsonPath.toFile(), summary(results));
+        try (PrintStream out = new PrintStream(Files.newOutputStream(histogramPath), false, StandardCharsets.UTF_8)) {
+            // Recorded in microseconds, printed in milliseconds
+            results.getResponseTimes().outputPercentileDistribution(out, 1000.0);
+        }
+        writeReport(results, reportPath, csvPath, jsonPath, histogramPath);
+
+        System.out.println("Results saved to: " + csvPath);
+        System.out.println("Performance report saved to: " + reportPath);
+        System.out.println("JSON summary saved to: " + jsonPath);
+    }
+
+    private void writeCsv(LoadTestResults results, Path path) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            out.println("\"RequestId\",\"Timestamp\",\"ResponseTime\",\"Status\",\"DataSize\",\"Error\"");
+            for (RequestResult request : results.getRequests()) {
+                out.println(String.join(",",
+                        quote(String.valueOf(request.getRequestId())),
+                        quote(request.getTimestamp().format(CSV_TIMESTAMP)),
+                        quote(String.valueOf(request.getResponseTimeMs())),
+                        quote(request.isSuccess() ? "Success" : "Error"),
+                        quote(String.valueOf(request.getDataSize())),
+                        quote(request.getError() != null ? request.getError() : "")));
+            }
+        }
+    }
+
+    private Map<String, Object> summary(LoadTestResults results) {
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("model", config.getModel().name().toLowerCase());
+        if (config.getModel() == LoadTestConfig.Model.OPEN) {
+            configuration.put("ratePerSecond", config.getRatePerSecond());
+        } else {
+            configuration.put("concurrentUsers", config.getUsers());
+            configuration.put("thinkTimeMs", config.getThinkTimeMs());
+        }
+        configuration.put("durationSeconds", config.getDuration().toSeconds());
+        configuration.put("baseUrl", config.getBaseUrl());
+        configuration.put("endpoints", config.getEndpoints().stream()
+                .collect(Collectors.toMap(WeightedEndpoint::getPath, WeightedEndpoint::getWeight,
+                        (a, b) -> a, LinkedHashMap::new)));
+        configuration.put("stubPeers", config.isStubPeers());
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("generated", LocalDateTime.now().format(REPORT_TIMESTAMP));
+        summary.put("configuration", configuration);
+        summary.put("totalRequests", results.getTotalRequests());
+        summary.put("successfulRequests", results.getSuccessCount());
+        summary.put("failedRequests", results.getErrorCount());
+        summary.put("successRate", round(successRate(results)));
+        summary.put("throughput", round(results.getThroughput()));
+        summary.put("averageDataSize", round(results.getAverageDataSize()));
+        summary.put("responseTimeMs", latency(results.getResponseTimes()));
+        summary.put("serviceTimeMs", latency(results.getServiceTimes()));
+        return summary;
+    }
+
+    private Map<String, Object> latency(Histogram histogram) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", round(histogram.getMean() / 1000.0));
+        latency.put("min", round(histogram.getMinValue() / 1000.0));
+        latency.put("p50", millis(histogram, 50));
+        latency.put("p90", millis(histogram, 90));
+        latency.put("p95", millis(histogram, 95));
+        latency.put("p99", millis(histogram, 99));
+        latency.put("p99.9", millis(histogram, 99.9));
+        latency.put("max", round(histogram.getMaxValue() / 1000.0));
+        return latency;
+    }
+
+    private void writeReport(LoadTestResults results, Path reportPath, Path csvPath, Path jsonPath,
+                             Path histogramPath) throws IOException {
+        Histogram response = results.getResponseTimes();
+        Histogram service = results.getServiceTimes();
+
+        StringBuilder report = new StringBuilder();
+        report.append("=== MICROSERVICES ARCHITECTURE PERFORMANCE REPORT ===\n");
+        report.append("Generated: ").append(LocalDateTime.now().format(REPORT_TIMESTAMP)).append("\n\n");
+
+        report.append("Test Configuration:\n");
+        if (config.getModel() == LoadTestConfig.Model.OPEN) {
+            report.append("  Workload Model: open (constant arrival rate)\n");
+            report.append("  Arrival Rate: ").append(config.getRatePerSecond()).append(" requests/second\n");
+        } else {
+            report.append("  Workload Model: closed (fixed user population)\n");
+            report.append("  Concurrent Users: ").append(config.getUsers()).append("\n");
+            report.append("  Think Time: ").append(config.getThinkTimeMs()).append("ms\n");
+        }
+        report.append("  Test Duration: ").append(config.getDuration().toSeconds()).append(" seconds\n");
+        report.append("  Target Endpoints: ").append(config.getEndpoints().stream()
+                .map(e -> e.getPath() + " (weight " + e.getWeight() + ")")
+                .collect(Collectors.joining(", "))).append("\n");
+        report.append("  Base URL: ").append(config.getBaseUrl()).append("\n");
+        report.append("  Stub Peers: ").append(config.isStubPeers() ? "enabled" : "disabled").append("\n\n");
+
+        report.append("Request Statistics:\n");
+        report.append("  Total Requests: ").append(results.getTotalRequests()).append("\n");
+        report.append("  Successful Requests: ").append(results.getSuccessCount()).append("\n");
+        report.append("  Failed Requests: ").append(results.getErrorCount()).append("\n");
+        report.append("  Success Rate: ").append(round(successRate(results))).append("%\n");
+        report.append("  Throughput: ").append(round(results.getThroughput())).append(" requests/second\n\n");
+
+        report.append("Response Time Analysis:\n");
+        report.append("  Average Response Time: ").append(round(response.getMean() / 1000.0)).append("ms\n");
+        report.append("  Median Response Time: ").append(millis(response, 50)).append("ms\n");
+        report.append("  Minimum Response Time: ").append(round(response.getMinValue() / 1000.0)).append("ms\n");
+        report.append("  Maximum Response Time: ").append(round(response.getMaxValue() / 1000.0)).append("ms\n\n");
+
+        report.append("Response Time Percentiles:\n");
+        report.append("  90th Percentile: ").append(millis(response, 90)).append("ms\n");
+        report.append("  95th Percentile: ").append(millis(response, 95)).append("ms\n");
+        report.append("  99th Percentile: ").append(millis(response, 99)).append("ms\n");
+        report.append("  99.9th Percentile: ").append(millis(response, 99.9)).append("ms\n\n");
+
+        report.append("Coordinated Omission:\n");
+        report.append("  Response times above are corrected (HdrHistogram)\n");
+        report.append("  Uncorrected service time p50/p99: ").append(millis(service, 50)).append("ms / ")
+                .append(millis(service, 99)).append("ms\n\n");
+
+        report.append("Data Analysis:\n");
+        report.append("  Average Response Data Size: ").append(round(results.getAverageDataSize())).append(" bytes\n\n");
+
+        report.append("Files Generated:\n");
+        report.append("  - Detailed CSV results: ").append(csvPath.getFileName()).append("\n");
+        report.append("  - Performance report: ").append(reportPath.getFileName()).append("\n");
+        report.append("  - JSON summary: ").append(jsonPath.getFileName()).append("\n");
+        report.append("  - Latency distribution: ").append(histogramPath.getFileName()).append("\n\n");
+        report.append("=== END OF REPORT ===\n");
+
+        Files.writeString(reportPath, report.toString(), StandardCharsets.UTF_8);
+        System.out.print(report);
+    }
+
+    private static double successRate(LoadTestResults results) {
+        return results.getTotalRequests() > 0 ? results.getSuccessCount() * 100.0 / results.getTotalRequests() : 0;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return round(histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
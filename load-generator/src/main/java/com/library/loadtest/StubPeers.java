@@ -0,0 +1,141 @@
+package com.library.loadtest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.put;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * In-process WireMock stand-ins for user-service, book-service and transaction-service,
+ * answering every endpoint the Feign clients of analytics-service and transaction-service
+ * call. Start them, then run the service under test with the "isolated" profile so it
+ * resolves its peers to these ports instead of Eureka.
+ * Responses carry a log-normal delay around --stub-latency-ms.
+ */
+public class StubPeers {
+
+    private static final double LATENCY_SIGMA = 0.25;
+
+    private final int basePort;
+    private final long latencyMs;
+    private final List<WireMockServer> servers = new ArrayList<>();
+
+    public StubPeers(int basePort, long latencyMs) {
+        this.basePort = basePort;
+        this.latencyMs = latencyMs;
+    }
+
+    public void start() {
+        WireMockServer userService = newServer(basePort);
+        stubUserService(userService);
+        WireMockServer bookService = newServer(basePort + 1);
+        stubBookService(bookService);
+        WireMockServer transactionService = newServer(basePort + 2);
+        stubTransactionService(transactionService);
+        System.out.printf("Stub peers: user-service :%d, book-service :%d, transaction-service :%d%n",
+                basePort, basePort + 1, basePort + 2);
+    }
+
+    public void stop() {
+        servers.forEach(WireMockServer::stop);
+    }
+
+    private WireMockServer newServer(int port) {
+        WireMockServer server = new WireMockServer(options()
+                .port(port)
+                .containerThreads(200)
+                .asynchronousResponseEnabled(true)
+                .disableRequestJournal());
+        server.start();
+        server.stubFor(get(urlPathEqualTo("/actuator/health")).willReturn(okJson("{\"status\":\"UP\"}")));
+        servers.add(server);
+        return server;
+    }
+
+    private ResponseDefinitionBuilder json(String body) {
+        return okJson(body).withLogNormalRandomDelay(latencyMs, LATENCY_SIGMA);
+    }
+
+    // Multi-gets answer one entity per requested ?ids= value, so every id the batch loader asked for is found
+    private ResponseDefinitionBuilder jsonPerId(String entity) {
+        return json("[{{#each request.query.ids}}{{#unless @first}},{{/unless}}"
+                + entity.replace("\"id\":1", "\"id\":{{this}}") + "{{/each}}]")
+                .withTransformers("response-template");
+    }
+
+    private void stubUserService(WireMockServer server) {
+        server.stubFor(get(urlPathEqualTo("/api/users/count")).willReturn(json("250")));
+        server.stubFor(get(urlPathEqualTo("/api/users/count/active")).willReturn(json("231")));
+        server.stubFor(get(urlPathEqualTo("/api/users/count/new-this-month")).willReturn(json("14")));
+        server.stubFor(get(urlPathEqualTo("/api/users/count-by-role")).willReturn(json(
+                "[{\"role\":\"USER\",\"count\":238},{\"role\":\"LIBRARIAN\",\"count\":9},{\"role\":\"ADMIN\",\"count\":3}]")));
+        server.stubFor(get(urlPathEqualTo("/api/users/stats/growth")).willReturn(json("[[\"2025-07\",21],[\"2025-08\",14]]")));
+        server.stubFor(get(urlPathEqualTo("/api/users/stats/top-borrowers")).willReturn(json(
+                "[[1,\"jdoe\",\"jdoe@library.com\",17],[2,\"asmith\",\"asmith@library.com\",12],"
+                        + "[3,\"bwayne\",\"bwayne@library.com\",9]]")));
+        String user = "{\"id\":1,\"email\":\"jdoe@library.com\",\"firstName\":\"John\",\"lastName\":\"Doe\",\"role\":\"USER\"}";
+        server.stubFor(get(urlPathMatching("/api/users/[0-9]+")).willReturn(json(user)));
+        server.stubFor(get(urlPathEqualTo("/api/users/batch")).willReturn(jsonPerId(user)));
+        server.stubFor(get(urlPathMatching("/api/users/[0-9]+/simple")).willReturn(json(
+                "{\"id\":1,\"email\":\"jdoe@library.com\"}")));
+    }
+
+    private void stubBookService(WireMockServer server) {
+        String book = "{\"id\":1,\"isbn\":\"978-0134685991\",\"title\":\"Effective Java\",\"author\":\"Joshua Bloch\","
+                + "\"category\":\"Programming\",\"publisher\":\"Addison-Wesley\",\"totalCopies\":5,\"availableCopies\":2}";
+        String bookStats = "[{\"id\":1,\"title\":\"Effective Java\",\"author\":\"Joshua Bloch\",\"borrowedCount\":42},"
+                + "{\"id\":2,\"title\":\"Clean Code\",\"author\":\"Robert C. Martin\",\"borrowedCount\":37}]";
+
+        server.stubFor(get(urlPathEqualTo("/api/books/count")).willReturn(json("1000")));
+        server.stubFor(get(urlPathEqualTo("/api/books/available-count")).willReturn(json("812")));
+        server.stubFor(get(urlPathEqualTo("/api/books/total-copies")).willReturn(json("3120")));
+        server.stubFor(get(urlPathEqualTo("/api/books/available-copies")).willReturn(json("2466")));
+        server.stubFor(get(urlPathEqualTo("/api/books/count-by-category")).willReturn(json(
+                "[{\"category\":\"Programming\",\"count\":320},{\"category\":\"Science\",\"count\":280},"
+                        + "{\"category\":\"Literature\",\"count\":400}]")));
+        server.stubFor(get(urlPathEqualTo("/api/books/low-stock")).willReturn(json("[" + book + "]")));
+        server.stubFor(get(urlPathEqualTo("/api/books/out-of-stock")).willReturn(json("[]")));
+        server.stubFor(get(urlPathEqualTo("/api/books/stats/popular")).willReturn(json(bookStats)));
+        server.stubFor(get(urlPathEqualTo("/api/books/stats/recent")).willReturn(json(bookStats)));
+        server.stubFor(get(urlPathMatching("/api/books/[0-9]+")).willReturn(json(book)));
+        server.stubFor(get(urlPathEqualTo("/api/books/batch")).willReturn(jsonPerId(book)));
+        // Full snapshot for the transaction-service book replica; delta polls (?since=) find nothing new
+        server.stubFor(get(urlPathEqualTo("/api/books/catalog")).willReturn(json(
+                "[{\"id\":1,\"isbn\":\"978-0134685991\",\"title\":\"Effective Java\",\"author\":\"Joshua Bloch\","
+                        + "\"availableCopies\":2,\"status\":\"AVAILABLE\",\"updatedAt\":\"2025-08-01T09:00:00\"},"
+                        + "{\"id\":2,\"isbn\":\"978-0132350884\",\"title\":\"Clean Code\",\"author\":\"Robert C. Martin\","
+                        + "\"availableCopies\":3,\"status\":\"AVAILABLE\",\"updatedAt\":\"2025-08-01T09:00:00\"}]")));
+        server.stubFor(get(urlPathEqualTo("/api/books/catalog")).withQueryParam("since", matching(".+"))
+                .willReturn(json("[]")));
+        server.stubFor(get(urlPathMatching("/api/books/[0-9]+/simple")).willReturn(json(
+                "{\"id\":1,\"title\":\"Effective Java\",\"author\":\"Joshua Bloch\",\"isbn\":\"978-0134685991\"}")));
+        server.stubFor(put(urlPathMatching("/api/books/[0-9]+/(borrow|return)"))
+                .willReturn(ok().withLogNormalRandomDelay(latencyMs, LATENCY_SIGMA)));
+    }
+
+    private void stubTransactionService(WireMockServer server) {
+        server.stubFor(get(urlPathEqualTo("/api/transactions/count/total")).willReturn(json("5400")));
+        server.stubFor(get(urlPathEqualTo("/api/transactions/count/active")).willReturn(json("610")));
+        server.stubFor(get(urlPathEqualTo("/api/transactions/count/completed")).willReturn(json("4720")));
+        server.stubFor(get(urlPathEqualTo("/api/transactions/count/overdue")).willReturn(json("70")));
+        server.stubFor(get(urlPathEqualTo("/api/transactions/count/today")).willReturn(json("38")));
+        server.stubFor(get(urlPathEqualTo("/api/transactions/count/this-week")).willReturn(json("212")));
+        server.stubFor(get(urlPathEqualTo("/api/transactions/count/this-month")).willReturn(json("880")));
+        server.stubFor(get(urlPathEqualTo("/api/transactions/stats/monthly")).willReturn(json(
+                "[[2025,7,812],[2025,8,880]]")));
+        server.stubFor(get(urlPathEqualTo("/api/transactions/stats/most-borrowed")).willReturn(json(
+                "[[1,\"Effective Java\",42],[2,\"Clean Code\",37]]")));
+        server.stubFor(get(urlPathEqualTo("/api/transactions/stats/user-patterns")).willReturn(json(
+                "[[1,\"jdoe\",17],[2,\"asmith\",12]]")));
+    }
+}
@@ -0,0 +1,65 @@
+package com.library.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Supplies the bearer token for the run: an explicit --token, one minted locally with
+ * --jwt-secret (same claims as user-service's JwtUtils, for isolated runs without
+ * user-service), or a regular login through /api/auth/login.
+ */
+public class TokenProvider {
+
+    private static final long TOKEN_VALIDITY_MS = 86400000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public String obtain(LoadTestConfig config, HttpClient httpClient) throws IOException, InterruptedException {
+        if (config.getToken() != null) {
+            return config.getToken();
+        }
+        if (config.getJwtSecret() != null) {
+            return mint(config.getJwtSecret(), config.getUsername());
+        }
+        return login(config, httpClient);
+    }
+
+    private String mint(String secret, String username) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setClaims(Map.of("role", "ADMIN"))
+                .setSubject(username)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TOKEN_VALIDITY_MS))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private String login(LoadTestConfig config, HttpClient httpClient) throws IOException, InterruptedException {
+        String payload = objectMapper.writeValueAsString(Map.of(
+                "usernameOrEmail", config.getUsername(),
+                "password", config.getPassword()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(config.getLoginUrl() + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonNode token = response.statusCode() == 200 ? objectMapper.readTree(response.body()).get("token") : null;
+        if (token == null) {
+            throw new IOException("Authentication failed with HTTP " + response.statusCode());
+        }
+        return token.asText();
+    }
+}
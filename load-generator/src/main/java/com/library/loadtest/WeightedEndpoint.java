@@ -0,0 +1,58 @@
+package com.library.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A GET route of the gateway and its share of the request mix.
+ */
+public class WeightedEndpoint {
+
+    private final String name;
+    private final String path;
+    private final int weight;
+
+    public WeightedEndpoint(String name, String path, int weight) {
+        this.name = name;
+        this.path = path;
+        this.weight = weight;
+    }
+
+    public String getName() { return name; }
+    public String getPath() { return path; }
+    public int getWeight() { return weight; }
+
+    /**
+     * Resolves a preset name (dashboard, analytics-mix, transactions-read) or a list of
+     * path:weight pairs such as "/api/analytics/dashboard:5,/api/analytics/summary:3".
+     */
+    public static List<WeightedEndpoint> parse(String spec) {
+        List<WeightedEndpoint> endpoints = new ArrayList<>();
+        switch (spec) {
+            case "dashboard" -> endpoints.add(new WeightedEndpoint("Dashboard", "/api/analytics/dashboard", 1));
+            case "analytics-mix" -> {
+                // Same mix as load-test/analytics-microservices-load-test.ps1
+                endpoints.add(new WeightedEndpoint("Dashboard", "/api/analytics/dashboard", 5));
+                endpoints.add(new WeightedEndpoint("Summary", "/api/analytics/summary", 3));
+                endpoints.add(new WeightedEndpoint("Users", "/api/analytics/users", 2));
+                endpoints.add(new WeightedEndpoint("Books", "/api/analytics/books", 2));
+                endpoints.add(new WeightedEndpoint("Transactions", "/api/analytics/transactions", 2));
+                endpoints.add(new WeightedEndpoint("Health", "/api/analytics/health", 1));
+            }
+            case "transactions-read" -> {
+                endpoints.add(new WeightedEndpoint("Active", "/api/transactions/active", 3));
+                endpoints.add(new WeightedEndpoint("Count", "/api/transactions/count/total", 2));
+                endpoints.add(new WeightedEndpoint("ByUser", "/api/transactions/user/1", 2));
+                endpoints.add(new WeightedEndpoint("Overdue", "/api/transactions/overdue", 1));
+            }
+            default -> {
+                for (String entry : spec.split(",")) {
+                    String[] parts = entry.trim().split(":");
+                    int weight = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+                    endpoints.add(new WeightedEndpoint(parts[0], parts[0], weight));
+                }
+            }
+        }
+        return endpoints;
+    }
+}
@@ -0,0 +1,150 @@
+# Virtual Threads Comparison Load Test
+# Runs the analytics dashboard load test against the services in their current thread mode,
+# records latency percentiles plus JVM thread counts, and compares platform vs virtual runs.
+#
+# Usage:
+#   1. Start all services normally (platform threads) and run:
+#        .\virtual-threads-comparison.ps1 -Mode platform -ConcurrentUsers 50
+#   2. Restart user/book/transaction/analytics with VIRTUAL_THREADS_ENABLED=true and run:
+#        .\virtual-threads-comparison.ps1 -Mode virtual -ConcurrentUsers 50
+#   The second run prints the side-by-side comparison (or use -CompareOnly).
+
+param(
+    [ValidateSet("platform", "virtual")]
+    [string]$Mode = "platform",
+    [int]$ConcurrentUsers = 50,
+    [int]$TestDurationMinutes = 2,
+    [string]$BaseUrl = "http://localhost:8080",
+    [string]$Username = "admin",
+    [string]$Password = "admin123",
+    [switch]$CompareOnly = $false
+)
+
+# Colors for output
+$Green = "Green"
+$Yellow = "Yellow"
+$Red = "Red"
+$Cyan = "Cyan"
+
+$Services = @(
+    @{ Name = "user-service"; Url = "http://localhost:8081" },
+    @{ Name = "book-service"; Url = "http://localhost:8082" },
+    @{ Name = "transaction-service"; Url = "http://localhost:8083" },
+    @{ Name = "analytics-service"; Url = "http://localhost:8084" }
+)
+
+# Function to read a single actuator metric value
+function Get-MetricValue {
+    param([string]$ServiceUrl, [string]$Metric)
+
+    try {
+        $response = Invoke-RestMethod -Uri "$ServiceUrl/actuator/metrics/$Metric" -Method GET -TimeoutSec 5
+        return ($response.measurements | Where-Object { $_.statistic -eq "VALUE" -or $_.statistic -eq "COUNT" } | Select-Object -First 1).value
+    } catch {
+        return $null
+    }
+}
+
+# Function to snapshot thread usage of every service
+function Get-ThreadSnapshot {
+    $snapshot = @{}
+    foreach ($service in $Services) {
+        $snapshot[$service.Name] = @{
+            PeakThreads = Get-MetricValue -ServiceUrl $service.Url -Metric "jvm.threads.peak"
+            LiveThreads = Get-MetricValue -ServiceUrl $service.Url -Metric "jvm.threads.live"
+            PinnedEvents = Get-MetricValue -ServiceUrl $service.Url -Metric "jvm.threads.virtual.pinned"
+        }
+    }
+    return $snapshot
+}
+
+# Function to compute latency statistics from a results CSV
+function Get-LatencyStats {
+    param([string]$CsvPath)
+
+    $rows = Import-Csv -Path $CsvPath
+    $times = @($rows | Where-Object { $_.Status -eq "Success" } | ForEach-Object { [double]$_.ResponseTime } | Sort-Object)
+    $total = $rows.Count
+
+    function Get-Percentile([double[]]$Sorted, [double]$Quantile) {
+        if ($Sorted.Count -eq 0) { return 0 }
+        $index = [math]::Max(0, [math]::Ceiling($Quantile * $Sorted.Count) - 1)
+        return $Sorted[$index]
+    }
+
+    return [PSCustomObject]@{
+        Requests = $total
+        SuccessRate = if ($total -gt 0) { [math]::Round(($times.Count / $total) * 100, 2) } else { 0 }
+        Average = if ($times.Count -gt 0) { [math]::Round(($times | Measure-Object -Average).Average, 2) } else { 0 }
+        P50 = Get-Percentile $times 0.50
+        P90 = Get-Percentile $times 0.90
+        P99 = Get-Percentile $times 0.99
+        Max = if ($times.Count -gt 0) { $times[-1] } else { 0 }
+    }
+}
+
+function Show-Comparison {
+    $platformCsv = Join-Path $PSScriptRoot "virtual-threads-platform-results.csv"
+    $virtualCsv = Join-Path $PSScriptRoot "virtual-threads-virtual-results.csv"
+    if (-not ((Test-Path $platformCsv) -and (Test-Path $virtualCsv))) {
+        Write-Host "Both platform and virtual runs are needed for a comparison." -ForegroundColor $Yellow
+        return
+    }
+
+    $platform = Get-LatencyStats -CsvPath $platformCsv
+    $virtual = Get-LatencyStats -CsvPath $virtualCsv
+
+    Write-Host ""
+    Write-Host "=== Platform vs Virtual Threads ===" -ForegroundColor $Cyan
+    $comparison = foreach ($stat in "Requests", "SuccessRate", "Average", "P50", "P90", "P99", "Max") {
+        [PSCustomObject]@{ Metric = $stat; Platform = $platform.$stat; Virtual = $virtual.$stat }
+    }
+    $comparison | Format-Table -AutoSize
+
+    Write-Host "=== Thread usage after each run ===" -ForegroundColor $Cyan
+    foreach ($runMode in "platform", "virtual") {
+        $threadsFile = Join-Path $PSScriptRoot "virtual-threads-$runMode-threads.json"
+        if (Test-Path $threadsFile) {
+            Write-Host "[$runMode]" -ForegroundColor $Green
+            $threads = Get-Content $threadsFile | ConvertFrom-Json
+            foreach ($service in $Services) {
+                $entry = $threads.($service.Name)
+                Write-Host ("  {0,-20} peak={1,-6} live={2,-6} pinned={3}" -f $service.Name, $entry.PeakThreads, $entry.LiveThreads, $entry.PinnedEvents)
+            }
+        }
+    }
+}
+
+if ($CompareOnly) {
+    Show-Comparison
+    exit 0
+}
+
+Write-Host "=== Virtual Threads Comparison - $Mode run ===" -ForegroundColor $Cyan
+Write-Host "Concurrent Users: $ConcurrentUsers" -ForegroundColor $Green
+Write-Host "Test Duration: $TestDurationMinutes minutes" -ForegroundColor $Green
+Write-Host ""
+
+$startedAt = Get-Date
+Push-Location $PSScriptRoot
+try {
+    & (Join-Path $PSScriptRoot "analytics-dashboard-load-test-optimized.ps1") `
+        -ConcurrentUsers $ConcurrentUsers -TestDurationMinutes $TestDurationMinutes `
+        -BaseUrl $BaseUrl -Username $Username -Password $Password
+
+    $latestCsv = Get-ChildItem -Path $PSScriptRoot -Filter "analytics-microservices-load-test-results-*.csv" |
+        Where-Object { $_.LastWriteTime -ge $startedAt } |
+        Sort-Object LastWriteTime -Descending | Select-Object -First 1
+    if (-not $latestCsv) {
+        Write-Host "No results CSV was produced by the load test." -ForegroundColor $Red
+        exit 1
+    }
+
+    Copy-Item $latestCsv.FullName (Join-Path $PSScriptRoot "virtual-threads-$Mode-results.csv") -Force
+    Get-ThreadSnapshot | ConvertTo-Json -Depth 3 | Out-File -FilePath (Join-Path $PSScriptRoot "virtual-threads-$Mode-threads.json") -Encoding UTF8
+    Write-Host "Saved $Mode results and thread snapshot" -ForegroundColor $Green
+} finally {
+    Pop-Location
+}
+
+Show-Comparison
@@ -0,0 +1,133 @@
+package com.library.transaction.client;
+
+import com.library.transaction.config.FeignClientInterceptor;
+import com.library.transaction.security.JwtUtil;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * CompletableFuture-returning mode for the blocking Feign clients. Each call runs on the
+ * remote-call executor with the caller's JWT and trace context carried over explicitly;
+ * cancelling the returned future interrupts the call if it is still running.
+ * <p>
+ * With library.batching.enabled, single-id lookups go through a {@link BatchLoader} instead and
+ * concurrent ones share a /batch multi-get, sent with a short-lived transaction-service token.
+ */
+@Component
+public class AsyncServiceClients {
+
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    @Autowired
+    private UserServiceClient userServiceClient;
+
+    @Autowired
+    private BookServiceClient bookServiceClient;
+
+    @Autowired
+    private ExecutorService remoteCallExecutor;
+
+    @Autowired
+    private ScheduledExecutorService batchFlushScheduler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${library.batching.enabled:true}")
+    private boolean batching;
+
+    @Value("${library.batching.window-micros:2000}")
+    private long batchWindowMicros;
+
+    @Value("${library.batching.max-batch-size:100}")
+    private int maxBatchSize;
+
+    private BatchLoader<UserServiceClient.UserDto> userLoader;
+    private BatchLoader<BookServiceClient.BookDto> bookLoader;
+
+    @PostConstruct
+    void createLoaders() {
+        userLoader = new BatchLoader<>("users", userServiceClient::getUsersByIds, UserServiceClient.UserDto::getId,
+                this::serviceAuthorization, batchWindowMicros, maxBatchSize, remoteCallExecutor, batchFlushScheduler, meterRegistry);
+        bookLoader = new BatchLoader<>("books", bookServiceClient::getBooksByIds, BookServiceClient.BookDto::getId,
+                this::serviceAuthorization, batchWindowMicros, maxBatchSize, remoteCallExecutor, batchFlushScheduler, meterRegistry);
+    }
+
+    public CompletableFuture<UserServiceClient.UserDto> getUserById(Long id) {
+        return batching ? userLoader.load(id) : submit(() -> userServiceClient.getUserById(id));
+    }
+
+    public CompletableFuture<UserServiceClient.UserSimpleDto> getUserSimpleById(Long id) {
+        if (!batching) {
+            return submit(() -> userServiceClient.getUserSimpleById(id));
+        }
+        return userLoader.load(id).thenApply(user -> {
+            UserServiceClient.UserSimpleDto simple = new UserServiceClient.UserSimpleDto();
+            simple.setId(user.getId());
+            simple.setEmail(user.getEmail());
+            return simple;
+        });
+    }
+
+    public CompletableFuture<BookServiceClient.BookDto> getBookById(Long id) {
+        return batching ? bookLoader.load(id) : submit(() -> bookServiceClient.getBookById(id));
+    }
+
+    public CompletableFuture<BookServiceClient.BookSimpleDto> getBookSimpleById(Long id) {
+        if (!batching) {
+            return submit(() -> bookServiceClient.getBookSimpleById(id));
+        }
+        return bookLoader.load(id).thenApply(book -> {
+            BookServiceClient.BookSimpleDto simple = new BookServiceClient.BookSimpleDto();
+            simple.setId(book.getId());
+            simple.setTitle(book.getTitle());
+            simple.setAuthor(book.getAuthor());
+            simple.setIsbn(book.getIsbn());
+            return simple;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        String authorization = FeignClientInterceptor.currentAuthorization();
+        ContextSnapshot snapshot = SNAPSHOTS.captureAll();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = remoteCallExecutor.submit(() -> {
+                try (ContextSnapshot.Scope scope = snapshot.setThreadLocals()) {
+                    result.complete(FeignClientInterceptor.withAuthorization(authorization, call));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private String serviceAuthorization() {
+        return "Bearer " + jwtUtil.generateServiceToken("transaction-service");
+    }
+}
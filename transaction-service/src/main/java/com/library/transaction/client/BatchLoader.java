@@ -0,0 +1,155 @@
+package com.library.transaction.client;
+
+import com.library.transaction.config.FeignClientInterceptor;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent single-id lookups into one multi-get. The first id to arrive opens a
+ * batch that is flushed after a short window, or as soon as it reaches the size cap; every caller
+ * gets its own future completed from the shared response.
+ * <p>
+ * The multi-get is issued under the service's own credential rather than any caller's, so ids
+ * from different callers share a batch and no caller's token decides what the others can see.
+ * Callers are expected to have been authorised for the ids they look up already.
+ */
+public class BatchLoader<V> {
+
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private final Function<List<Long>, List<V>> batchCall;
+    private final Function<V, Long> idOf;
+    private final Supplier<String> serviceAuthorization;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final ExecutorService callExecutor;
+    private final ScheduledExecutorService flushScheduler;
+    private final DistributionSummary batchSizes;
+
+    // A lock rather than synchronized, so virtual-thread callers never pin their carrier here
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch<V> openBatch;
+
+    public BatchLoader(String name, Function<List<Long>, List<V>> batchCall, Function<V, Long> idOf,
+                       Supplier<String> serviceAuthorization, long windowMicros, int maxBatchSize, ExecutorService callExecutor,
+                       ScheduledExecutorService flushScheduler, MeterRegistry meterRegistry) {
+        this.batchCall = batchCall;
+        this.idOf = idOf;
+        this.serviceAuthorization = serviceAuthorization;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.callExecutor = callExecutor;
+        this.flushScheduler = flushScheduler;
+        this.batchSizes = DistributionSummary.builder("library.batch.loader.size")
+                .description("Ids per coalesced multi-get")
+                .tag("loader", name)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<V> load(Long id) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        Batch<V> full = null;
+        lock.lock();
+        try {
+            Batch<V> batch = openBatch;
+            if (batch == null) {
+                batch = new Batch<>(SNAPSHOTS.captureAll());
+                openBatch = batch;
+                Batch<V> scheduled = batch;
+                flushScheduler.schedule(() -> flush(scheduled), windowMicros, TimeUnit.MICROSECONDS);
+            }
+            batch.waiters.computeIfAbsent(id, ignored -> new ArrayList<>(1)).add(future);
+            if (batch.waiters.size() >= maxBatchSize) {
+                openBatch = null;
+                full = batch;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    // Window expired; a batch that already went out because it filled up is no longer registered
+    private void flush(Batch<V> batch) {
+        lock.lock();
+        try {
+            if (openBatch != batch) {
+                return;
+            }
+            openBatch = null;
+        } finally {
+            lock.unlock();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch<V> batch) {
+        try {
+            callExecutor.execute(() -> {
+                try (ContextSnapshot.Scope scope = batch.context.setThreadLocals()) {
+                    List<Long> ids = new ArrayList<>(batch.waiters.keySet());
+                    batchSizes.record(ids.size());
+                    List<V> found = FeignClientInterceptor.withAuthorization(serviceAuthorization.get(),
+                            () -> batchCall.apply(ids));
+                    complete(batch, found);
+                } catch (Throwable e) {
+                    batch.waiters.values().forEach(futures -> futures.forEach(f -> f.completeExceptionally(e)));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            batch.waiters.values().forEach(futures -> futures.forEach(f -> f.completeExceptionally(e)));
+        }
+    }
+
+    private void complete(Batch<V> batch, List<V> found) {
+        Map<Long, V> byId = new HashMap<>(found.size() * 2);
+        for (V value : found) {
+            byId.put(idOf.apply(value), value);
+        }
+        batch.waiters.forEach((id, futures) -> {
+            V value = byId.get(id);
+            for (CompletableFuture<V> future : futures) {
+                if (value != null) {
+                    future.complete(value);
+                } else {
+                    future.completeExceptionally(new MissingEntityException(id));
+                }
+            }
+        });
+    }
+
+    private static final class Batch<V> {
+        private final ContextSnapshot context;
+        private final Map<Long, List<CompletableFuture<V>>> waiters = new LinkedHashMap<>();
+
+        private Batch(ContextSnapshot context) {
+            this.context = context;
+        }
+    }
+
+    /** The multi-get answered, but without this id: the batched equivalent of a 404. */
+    public static class MissingEntityException extends RuntimeException {
+        public MissingEntityException(Long id) {
+            super("No entity with id " + id);
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package com.library.transaction.client;
 
+import com.library.transaction.config.FeignConfig;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "book-service", path = "/api/books")
+import java.time.LocalDateTime;
+import java.util.List;
+
+@FeignClient(name = "book-service", path = "/api/books", configuration = FeignConfig.class)
 public interface BookServiceClient {
     
     @GetMapping("/{id}")
@@ -14,6 +20,10 @@ public interface BookServiceClient {
     @GetMapping("/{id}/simple")
     BookSimpleDto getBookSimpleById(@PathVariable Long id);
     
+    // Multi-get behind BatchLoader; unknown ids are simply absent from the result
+    @GetMapping("/batch")
+    List<BookDto> getBooksByIds(@RequestParam("ids") List<Long> ids);
+    
     @GetMapping("/count")
     Long getTotalBooksCount();
     
@@ -23,6 +33,11 @@ public interface BookServiceClient {
     @PutMapping("/{id}/return")
     void returnBook(@PathVariable Long id);
     
+    // Full catalog when since is null, otherwise books updated after it
+    @GetMapping("/catalog")
+    List<BookCatalogEntryDto> getCatalog(
+            @RequestParam(value = "since", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since);
+    
     // DTO classes
     class BookDto {
         private Long id;
@@ -79,4 +94,36 @@ public interface BookServiceClient {
         public String getIsbn() { return isbn; }
         public void setIsbn(String isbn) { this.isbn = isbn; }
     }
+    
+    class BookCatalogEntryDto {
+        private Long id;
+        private String isbn;
+        private String title;
+        private String author;
+        private Integer availableCopies;
+        private String status;
+        private LocalDateTime updatedAt;
+        
+        // Getters and Setters
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        
+        public String getIsbn() { return isbn; }
+        public void setIsbn(String isbn) { this.isbn = isbn; }
+        
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+        
+        public String getAuthor() { return author; }
+        public void setAuthor(String author) { this.author = author; }
+        
+        public Integer getAvailableCopies() { return availableCopies; }
+        public void setAvailableCopies(Integer availableCopies) { this.availableCopies = availableCopies; }
+        
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+        public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    }
 }
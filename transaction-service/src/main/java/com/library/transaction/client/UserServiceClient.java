@@ -1,11 +1,15 @@
 package com.library.transaction.client;
 
+import com.library.transaction.config.FeignConfig;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "user-service", path = "/api/users")
+import java.util.List;
+
+@FeignClient(name = "user-service", path = "/api/users", configuration = FeignConfig.class)
 public interface UserServiceClient {
     
     @GetMapping("/{id}")
@@ -14,6 +18,10 @@ public interface UserServiceClient {
     @GetMapping("/{id}/simple")
     UserSimpleDto getUserSimpleById(@PathVariable Long id);
     
+    // Multi-get behind BatchLoader; unknown ids are simply absent from the result
+    @GetMapping("/batch")
+    List<UserDto> getUsersByIds(@RequestParam("ids") List<Long> ids);
+    
     @GetMapping("/count")
     Long getUserCount();
     
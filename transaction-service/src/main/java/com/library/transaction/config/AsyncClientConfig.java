@@ -0,0 +1,46 @@
+package com.library.transaction.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors behind AsyncServiceClients. With virtual threads enabled every remote lookup gets
+ * its own virtual thread; otherwise a bounded pool whose full queue rejects new work instead of
+ * letting it pile up behind a slow dependency.
+ */
+@Configuration
+public class AsyncClientConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService remoteCallExecutor(MeterRegistry meterRegistry,
+                                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                              @Value("${library.async-clients.pool-size:32}") int poolSize,
+                                              @Value("${library.async-clients.queue-capacity:256}") int queueCapacity) {
+        ExecutorService executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("remote-call-", 0).factory())
+                : new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("remote-call-"),
+                        new ThreadPoolExecutor.AbortPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "remote.call");
+    }
+
+    // Only fires BatchLoader windows; the multi-get itself runs on remoteCallExecutor
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService batchFlushScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("batch-flush-"));
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
@@ -0,0 +1,71 @@
+package com.library.transaction.config;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.function.Supplier;
+
+/**
+ * Forwards the caller's JWT on Feign calls. On request threads the header is read from the
+ * current servlet request; async callers capture it up front with {@link #currentAuthorization()}
+ * and hand it to the worker thread through {@link #withAuthorization}.
+ */
+@Component
+public class FeignClientInterceptor implements RequestInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeignClientInterceptor.class);
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+
+    private static final ThreadLocal<String> FORWARDED_AUTHORIZATION = new ThreadLocal<>();
+
+    @Override
+    public void apply(RequestTemplate template) {
+        String authorization = FORWARDED_AUTHORIZATION.get();
+        if (authorization == null) {
+            authorization = currentAuthorization();
+        }
+        if (authorization != null) {
+            template.header(AUTHORIZATION_HEADER, authorization);
+        } else {
+            logger.debug("No Authorization header to forward for Feign call to: {}", template.url());
+        }
+    }
+
+    public static String currentAuthorization() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            String header = request.getHeader(AUTHORIZATION_HEADER);
+            if (header != null && header.startsWith("Bearer ")) {
+                return header;
+            }
+        }
+        return null;
+    }
+
+    public static <T> T withAuthorization(String authorization, Supplier<T> call) {
+        if (authorization == null) {
+            return call.get();
+        }
+        FORWARDED_AUTHORIZATION.set(authorization);
+        try {
+            return call.get();
+        } finally {
+            FORWARDED_AUTHORIZATION.remove();
+        }
+    }
+
+    public static void withAuthorization(String authorization, Runnable call) {
+        withAuthorization(authorization, () -> {
+            call.run();
+            return null;
+        });
+    }
+}
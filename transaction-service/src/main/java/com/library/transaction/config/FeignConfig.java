@@ -0,0 +1,83 @@
+package com.library.transaction.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import feign.Capability;
+import feign.RequestInterceptor;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import feign.optionals.OptionalDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-client Feign configuration, referenced from BookServiceClient and UserServiceClient through
+ * {@code @FeignClient(configuration = ...)}. Deliberately not a {@code @Configuration}: a
+ * component-scanned one would put these beans in the application context and apply them to
+ * every Feign client.
+ */
+public class FeignConfig {
+
+    // Smile first, JSON as fallback for peers that have the binary codec switched off
+    private static final String SMILE_ACCEPT = "application/x-jackson-smile, application/json;q=0.9";
+
+    @Autowired
+    private FeignClientInterceptor feignClientInterceptor;
+
+    @Bean
+    public RequestInterceptor requestInterceptor() {
+        return feignClientInterceptor;
+    }
+
+    @Bean
+    public Capability feignMetricsCapability(MeterRegistry meterRegistry) {
+        return new FeignMetricsCapability(meterRegistry);
+    }
+
+    // Binary codec for internal calls, enabled with library.feign.codec=smile
+    @Bean
+    @ConditionalOnProperty(name = "library.feign.codec", havingValue = "smile")
+    public RequestInterceptor smileAcceptInterceptor() {
+        return template -> template.header(HttpHeaders.ACCEPT, SMILE_ACCEPT);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "library.feign.codec", havingValue = "smile")
+    public Decoder smileFeignDecoder(Jackson2ObjectMapperBuilder objectMapperBuilder,
+                                     HttpMessageConverters messageConverters,
+                                     ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        HttpMessageConverters converters = smileFirst(objectMapperBuilder, messageConverters);
+        return new OptionalDecoder(new ResponseEntityDecoder(new SpringDecoder(() -> converters, customizers)));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "library.feign.codec", havingValue = "smile")
+    public Encoder smileFeignEncoder(Jackson2ObjectMapperBuilder objectMapperBuilder,
+                                     HttpMessageConverters messageConverters) {
+        HttpMessageConverters converters = smileFirst(objectMapperBuilder, messageConverters);
+        return new SpringEncoder(() -> converters);
+    }
+
+    private HttpMessageConverters smileFirst(Jackson2ObjectMapperBuilder objectMapperBuilder,
+                                             HttpMessageConverters messageConverters) {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build()));
+        converters.addAll(messageConverters.getConverters());
+        return new HttpMessageConverters(false, converters);
+    }
+}
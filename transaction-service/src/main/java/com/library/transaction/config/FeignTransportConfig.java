@@ -0,0 +1,29 @@
+package com.library.transaction.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pooled Apache HttpClient 5 transport for Feign. The pool itself (size, per-route
+ * limits, keep-alive TTL, timeouts) is created by Spring Cloud OpenFeign from the
+ * spring.cloud.openfeign.httpclient.* properties in the config server; this class
+ * only exports its saturation metrics (leased / available / pending connections).
+ */
+@Configuration
+public class FeignTransportConfig {
+
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        return registry -> {
+            HttpClientConnectionManager manager = connectionManager.getIfAvailable();
+            if (manager instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry);
+            }
+        };
+    }
+}
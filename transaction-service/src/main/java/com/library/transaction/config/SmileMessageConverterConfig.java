@@ -0,0 +1,32 @@
+package com.library.transaction.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Lets internal Feign callers negotiate Jackson Smile (application/x-jackson-smile)
+ * instead of JSON. The converter is appended after the JSON converter, so browsers and
+ * gateway clients sending Accept: application/json (or a wildcard) keep getting JSON.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.codec.smile.enabled", havingValue = "true", matchIfMissing = true)
+public class SmileMessageConverterConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Reuse Boot's Jackson settings (JavaTimeModule, date format) with a binary factory
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build()));
+    }
+}
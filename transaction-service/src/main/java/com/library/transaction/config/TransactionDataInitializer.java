@@ -14,8 +14,10 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 @Component
 @Order(3) // Run after User and Book services have initialized their data
@@ -66,6 +68,7 @@ public class TransactionDataInitializer implements CommandLineRunner {
             logger.info("Found {} users and {} books in other services", userCount, bookCount);
             
             List<Transaction> transactions = new ArrayList<>();
+            Set<List<Long>> activeLoans = new HashSet<>();
             LocalDateTime now = LocalDateTime.now();
             
             // Create realistic transaction patterns over the past 6 months
@@ -117,7 +120,8 @@ public class TransactionDataInitializer implements CommandLineRunner {
                 
                 // Randomly determine if book has been returned
                 double returnProbability = 0.7; // 70% of books are returned
-                if (random.nextDouble() < returnProbability) {
+                // At most one active loan per user and book (enforced by a unique index on PostgreSQL)
+                if (random.nextDouble() < returnProbability || !activeLoans.add(List.of(userId, bookId))) {
                     // Book is returned
                     LocalDateTime returnDate = transactionDate.plusDays(random.nextInt(20) + 1); // Return within 1-20 days
                     if (returnDate.isAfter(now)) {
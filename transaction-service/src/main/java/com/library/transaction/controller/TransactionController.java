@@ -2,58 +2,120 @@ package com.library.transaction.controller;
 
 import com.library.transaction.dto.TransactionDto;
 import com.library.transaction.dto.TransactionResponseDto;
+import com.library.transaction.service.IdempotencyStore;
+import com.library.transaction.service.ReservationService;
+import com.library.transaction.service.TransactionExportService;
 import com.library.transaction.service.TransactionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PagedModel;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
     
+    private static final int MAX_PAGE_SIZE = 200;
+    
     @Autowired
     private TransactionService transactionService;
     
+    @Autowired
+    private TransactionExportService transactionExportService;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private ReservationService reservationService;
+    
+    // Borrow and return accept an Idempotency-Key header: a retried request gets the original response
     @PostMapping("/borrow")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN') or hasRole('MEMBER')")
-    public ResponseEntity<?> borrowBook(@Valid @RequestBody TransactionDto transactionDto) {
+    public ResponseEntity<?> borrowBook(@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                        @Valid @RequestBody TransactionDto transactionDto) {
+        String fingerprint = "borrow:" + transactionDto.getUserId() + ":" + transactionDto.getBookId() + ":"
+                + transactionDto.getDueDate() + ":" + transactionDto.getNotes();
+        return idempotencyStore.execute(idempotencyKey, fingerprint, () -> {
+            try {
+                TransactionResponseDto transaction = transactionService.borrowBook(transactionDto);
+                return ResponseEntity.ok(transaction);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+    
+    @PutMapping("/{id}/return")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN') or hasRole('MEMBER')")
+    public ResponseEntity<?> returnBook(@RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+                                        @PathVariable Long id) {
+        return idempotencyStore.execute(idempotencyKey, "return:" + id, () -> {
+            try {
+                TransactionResponseDto transaction = transactionService.returnBook(id);
+                return ResponseEntity.ok(transaction);
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+    
+    @PutMapping("/return")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN') or hasRole('MEMBER')")
+    public ResponseEntity<?> returnBookByUserAndBook(@RequestParam Long userId, 
+                                                    @RequestParam Long bookId) {
         try {
-            TransactionResponseDto transaction = transactionService.borrowBook(transactionDto);
+            TransactionResponseDto transaction = transactionService.returnBookByUserAndBook(userId, bookId);
             return ResponseEntity.ok(transaction);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
     
-    @PutMapping("/{id}/return")
+    // Joins the book's waitlist when no copy is on the shelf; the next returned copy is held for the head of the queue
+    @PostMapping("/reserve")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN') or hasRole('MEMBER')")
-    public ResponseEntity<?> returnBook(@PathVariable Long id) {
+    public ResponseEntity<?> reserveBook(@Valid @RequestBody TransactionDto transactionDto) {
         try {
-            TransactionResponseDto transaction = transactionService.returnBook(id);
-            return ResponseEntity.ok(transaction);
+            TransactionResponseDto reservation = transactionService.reserveBook(transactionDto);
+            return ResponseEntity.ok(reservation);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
     
-    @PutMapping("/return")
+    @PutMapping("/reservations/{id}/cancel")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN') or hasRole('MEMBER')")
-    public ResponseEntity<?> returnBookByUserAndBook(@RequestParam Long userId, 
-                                                    @RequestParam Long bookId) {
+    public ResponseEntity<?> cancelReservation(@PathVariable Long id) {
         try {
-            TransactionResponseDto transaction = transactionService.returnBookByUserAndBook(userId, bookId);
-            return ResponseEntity.ok(transaction);
+            TransactionResponseDto reservation = reservationService.cancelReservation(id);
+            return ResponseEntity.ok(reservation);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
     
+    @GetMapping("/reservations/book/{bookId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+    public ResponseEntity<List<TransactionResponseDto>> getReservationQueue(@PathVariable Long bookId) {
+        return ResponseEntity.ok(reservationService.getQueue(bookId));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<TransactionResponseDto> getTransactionById(@PathVariable Long id) {
         return transactionService.getTransactionById(id)
@@ -61,40 +123,68 @@ public class TransactionController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    // List endpoints return every row as a JSON array, or one page (PagedModel) when ?page= is given
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<TransactionResponseDto>> getUserTransactions(@PathVariable Long userId) {
-        List<TransactionResponseDto> transactions = transactionService.getUserTransactions(userId);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<?> getUserTransactions(@PathVariable Long userId,
+                                                 @RequestParam(required = false) Integer page,
+                                                 @RequestParam(defaultValue = "50") int size) {
+        return listOrPage(() -> transactionService.getUserTransactions(userId, pageable(page, size)), page);
     }
     
     @GetMapping("/book/{bookId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<TransactionResponseDto>> getBookTransactions(@PathVariable Long bookId) {
-        List<TransactionResponseDto> transactions = transactionService.getBookTransactions(bookId);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<?> getBookTransactions(@PathVariable Long bookId,
+                                                 @RequestParam(required = false) Integer page,
+                                                 @RequestParam(defaultValue = "50") int size) {
+        return listOrPage(() -> transactionService.getBookTransactions(bookId, pageable(page, size)), page);
     }
     
     @GetMapping("/active")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<TransactionResponseDto>> getActiveTransactions() {
-        List<TransactionResponseDto> transactions = transactionService.getActiveTransactions();
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<?> getActiveTransactions(@RequestParam(required = false) Integer page,
+                                                   @RequestParam(defaultValue = "50") int size) {
+        return listOrPage(() -> transactionService.getActiveTransactions(pageable(page, size)), page);
     }
     
     @GetMapping("/overdue")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<TransactionResponseDto>> getOverdueTransactions() {
-        List<TransactionResponseDto> transactions = transactionService.getOverdueTransactions();
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<?> getOverdueTransactions(@RequestParam(required = false) Integer page,
+                                                    @RequestParam(defaultValue = "50") int size) {
+        return listOrPage(() -> transactionService.getOverdueTransactions(pageable(page, size)), page);
     }
     
     @GetMapping("/date-range")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
-    public ResponseEntity<List<TransactionResponseDto>> getTransactionsByDateRange(
+    public ResponseEntity<?> getTransactionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<TransactionResponseDto> transactions = transactionService.getTransactionsByDateRange(startDate, endDate);
-        return ResponseEntity.ok(transactions);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "50") int size) {
+        return listOrPage(() -> transactionService.getTransactionsByDateRange(startDate, endDate, pageable(page, size)), page);
+    }
+    
+    // Streams the range as NDJSON or CSV straight from a database cursor; memory use does not grow with the range
+    @GetMapping("/date-range/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
+    public ResponseEntity<?> exportTransactionsByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        TransactionExportService.ExportFormat exportFormat;
+        try {
+            exportFormat = TransactionExportService.ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unsupported export format: " + format + " (use ndjson or csv)");
+        }
+        
+        String filename = "transactions-" + startDate.toLocalDate() + "-" + endDate.toLocalDate()
+                + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> transactionExportService.export(startDate, endDate, exportFormat, gzip, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .body(body);
     }
     
     // Analytics endpoints
@@ -150,4 +240,25 @@ public class TransactionController {
     public ResponseEntity<List<Object[]>> getUserBorrowingPatterns() {
         return ResponseEntity.ok(transactionService.getUserBorrowingPatterns());
     }
+    
+    private Pageable pageable(Integer page, int size) {
+        if (page == null) {
+            return Pageable.unpaged();
+        }
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+    
+    private ResponseEntity<?> listOrPage(Supplier<Page<TransactionResponseDto>> query, Integer page) {
+        Page<TransactionResponseDto> transactions;
+        try {
+            transactions = query.get();
+        } catch (IllegalArgumentException e) {
+            // Unsupported sort or a page past library.archive.max-page-depth
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return page == null
+                ? ResponseEntity.ok(transactions.getContent())
+                : ResponseEntity.ok(new PagedModel<>(transactions));
+    }
 }
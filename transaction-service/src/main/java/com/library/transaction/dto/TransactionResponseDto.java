@@ -2,6 +2,7 @@ package com.library.transaction.dto;
 
 import com.library.transaction.entity.Transaction;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 public class TransactionResponseDto {
     
@@ -44,6 +45,33 @@ public class TransactionResponseDto {
         this.daysOverdue = transaction.getDaysOverdue();
     }
     
+    // Projection constructor, used by "SELECT new" queries in TransactionRepository so list
+    // endpoints never load managed entities
+    public TransactionResponseDto(Long id, Long userId, Long bookId, String userEmail, String bookTitle,
+                                  String bookAuthor, String bookIsbn, Transaction.TransactionType type,
+                                  Transaction.TransactionStatus status, LocalDateTime borrowedAt,
+                                  LocalDateTime dueDate, LocalDateTime returnedAt, LocalDateTime createdAt,
+                                  LocalDateTime updatedAt, String notes) {
+        this.id = id;
+        this.userId = userId;
+        this.bookId = bookId;
+        this.userEmail = userEmail;
+        this.bookTitle = bookTitle;
+        this.bookAuthor = bookAuthor;
+        this.bookIsbn = bookIsbn;
+        this.type = type;
+        this.status = status;
+        this.borrowedAt = borrowedAt;
+        this.dueDate = dueDate;
+        this.returnedAt = returnedAt;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.notes = notes;
+        LocalDateTime now = LocalDateTime.now();
+        this.overdue = dueDate != null && now.isAfter(dueDate) && status == Transaction.TransactionStatus.ACTIVE;
+        this.daysOverdue = overdue ? ChronoUnit.DAYS.between(dueDate, now) : 0;
+    }
+    
     // Default constructor
     public TransactionResponseDto() {}
     
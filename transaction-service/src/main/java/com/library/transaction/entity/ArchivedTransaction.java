@@ -0,0 +1,127 @@
+package com.library.transaction.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Cold tier for closed loans. Rows are copied here by TransactionArchiveService with their
+ * original ids and never change afterwards, so the entity is read-only.
+ */
+@Entity
+@Table(name = "transactions_archive")
+public class ArchivedTransaction {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+    
+    @Enumerated(EnumType.STRING)
+    private Transaction.TransactionType type;
+    
+    @Enumerated(EnumType.STRING)
+    private Transaction.TransactionStatus status;
+    
+    @Column(name = "borrowed_at")
+    private LocalDateTime borrowedAt;
+    
+    @Column(name = "due_date")
+    private LocalDateTime dueDate;
+    
+    @Column(name = "returned_at")
+    private LocalDateTime returnedAt;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    private String notes;
+    
+    @Column(name = "user_email")
+    private String userEmail;
+    
+    @Column(name = "book_title")
+    private String bookTitle;
+    
+    @Column(name = "book_author")
+    private String bookAuthor;
+    
+    @Column(name = "book_isbn")
+    private String bookIsbn;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+    
+    protected ArchivedTransaction() {}
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public Long getBookId() {
+        return bookId;
+    }
+    
+    public Transaction.TransactionType getType() {
+        return type;
+    }
+    
+    public Transaction.TransactionStatus getStatus() {
+        return status;
+    }
+    
+    public LocalDateTime getBorrowedAt() {
+        return borrowedAt;
+    }
+    
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+    
+    public LocalDateTime getReturnedAt() {
+        return returnedAt;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public String getNotes() {
+        return notes;
+    }
+    
+    public String getUserEmail() {
+        return userEmail;
+    }
+    
+    public String getBookTitle() {
+        return bookTitle;
+    }
+    
+    public String getBookAuthor() {
+        return bookAuthor;
+    }
+    
+    public String getBookIsbn() {
+        return bookIsbn;
+    }
+    
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
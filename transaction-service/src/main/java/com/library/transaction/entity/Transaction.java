@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "user_id", nullable = false)
@@ -57,7 +58,10 @@ public class Transaction {
     }
     
     public enum TransactionStatus {
-        ACTIVE, COMPLETED, OVERDUE, CANCELLED, RETURNED
+        ACTIVE, COMPLETED, OVERDUE, CANCELLED, RETURNED,
+        // RESERVE only: queued for a copy, then holding one until dueDate. Claimed holds become COMPLETED,
+        // cancelled or expired ones CANCELLED.
+        WAITING, HELD
     }
     
     @PrePersist
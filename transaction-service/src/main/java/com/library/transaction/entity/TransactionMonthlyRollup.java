@@ -0,0 +1,75 @@
+package com.library.transaction.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Per-month transaction counts for rows that have left the live table. Monthly and status
+ * statistics add these to the live counts, so archiving never changes a reported number.
+ */
+@Entity
+@Table(name = "transaction_monthly_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_rollup_month_type_status",
+                                             columnNames = {"rollup_year", "rollup_month", "type", "status"}))
+public class TransactionMonthlyRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_rollups_seq")
+    @SequenceGenerator(name = "transaction_rollups_seq", sequenceName = "transaction_rollups_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "rollup_year", nullable = false)
+    private int year;
+    
+    @Column(name = "rollup_month", nullable = false)
+    private int month;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Transaction.TransactionType type;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Transaction.TransactionStatus status;
+    
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+    
+    protected TransactionMonthlyRollup() {}
+    
+    public TransactionMonthlyRollup(int year, int month, Transaction.TransactionType type,
+                                    Transaction.TransactionStatus status) {
+        this.year = year;
+        this.month = month;
+        this.type = type;
+        this.status = status;
+    }
+    
+    public void add(long count) {
+        this.transactionCount += count;
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public int getYear() {
+        return year;
+    }
+    
+    public int getMonth() {
+        return month;
+    }
+    
+    public Transaction.TransactionType getType() {
+        return type;
+    }
+    
+    public Transaction.TransactionStatus getStatus() {
+        return status;
+    }
+    
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+}
@@ -0,0 +1,69 @@
+package com.library.transaction.repository;
+
+import com.library.transaction.dto.TransactionResponseDto;
+import com.library.transaction.entity.ArchivedTransaction;
+import com.library.transaction.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedTransactionRepository extends JpaRepository<ArchivedTransaction, Long> {
+    
+    // Same DTO shape as TransactionRepository.RESPONSE_PROJECTION, so history pages can merge both tiers
+    String RESPONSE_PROJECTION = "SELECT new com.library.transaction.dto.TransactionResponseDto(" +
+            "a.id, a.userId, a.bookId, a.userEmail, a.bookTitle, a.bookAuthor, a.bookIsbn, a.type, a.status, " +
+            "a.borrowedAt, a.dueDate, a.returnedAt, a.createdAt, a.updatedAt, a.notes) FROM ArchivedTransaction a ";
+    
+    // Copies live rows into the archive in one statement, keeping their ids
+    @Modifying
+    @Query("INSERT INTO ArchivedTransaction (id, userId, bookId, type, status, borrowedAt, dueDate, returnedAt, " +
+           "createdAt, updatedAt, notes, userEmail, bookTitle, bookAuthor, bookIsbn, archivedAt) " +
+           "SELECT t.id, t.userId, t.bookId, t.type, t.status, t.borrowedAt, t.dueDate, t.returnedAt, " +
+           "t.createdAt, t.updatedAt, t.notes, t.userEmail, t.bookTitle, t.bookAuthor, t.bookIsbn, local datetime " +
+           "FROM Transaction t WHERE t.id IN :ids")
+    int copyFromLive(@Param("ids") Collection<Long> ids);
+    
+    @Query(RESPONSE_PROJECTION + "WHERE a.id = :id")
+    Optional<TransactionResponseDto> findResponseById(@Param("id") Long id);
+    
+    @Query(value = RESPONSE_PROJECTION + "WHERE a.userId = :userId",
+           countQuery = "SELECT COUNT(a) FROM ArchivedTransaction a WHERE a.userId = :userId")
+    Page<TransactionResponseDto> findResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query(value = RESPONSE_PROJECTION + "WHERE a.bookId = :bookId",
+           countQuery = "SELECT COUNT(a) FROM ArchivedTransaction a WHERE a.bookId = :bookId")
+    Page<TransactionResponseDto> findResponsesByBookId(@Param("bookId") Long bookId, Pageable pageable);
+    
+    @Query(value = RESPONSE_PROJECTION + "WHERE a.createdAt BETWEEN :startDate AND :endDate",
+           countQuery = "SELECT COUNT(a) FROM ArchivedTransaction a WHERE a.createdAt BETWEEN :startDate AND :endDate")
+    Page<TransactionResponseDto> findResponsesByDateRange(@Param("startDate") LocalDateTime startDate,
+                                                          @Param("endDate") LocalDateTime endDate,
+                                                          Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(RESPONSE_PROJECTION + "WHERE a.createdAt BETWEEN :startDate AND :endDate ORDER BY a.createdAt")
+    Stream<TransactionResponseDto> streamResponsesByDateRange(@Param("startDate") LocalDateTime startDate,
+                                                              @Param("endDate") LocalDateTime endDate);
+    
+    // Archived halves of TransactionRepository.getMostBorrowedBooks / getUserBorrowingPatterns
+    @Query("SELECT a.bookId, a.bookTitle, a.bookAuthor, COUNT(a) FROM ArchivedTransaction a " +
+           "WHERE a.type = :type GROUP BY a.bookId, a.bookTitle, a.bookAuthor")
+    List<Object[]> getMostBorrowedBooks(@Param("type") Transaction.TransactionType type);
+    
+    @Query("SELECT a.userId, a.userEmail, COUNT(a) FROM ArchivedTransaction a " +
+           "WHERE a.type = :type GROUP BY a.userId, a.userEmail")
+    List<Object[]> getUserBorrowingPatterns(@Param("type") Transaction.TransactionType type);
+}
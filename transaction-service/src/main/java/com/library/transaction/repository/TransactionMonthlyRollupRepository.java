@@ -0,0 +1,30 @@
+package com.library.transaction.repository;
+
+import com.library.transaction.entity.Transaction;
+import com.library.transaction.entity.TransactionMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransactionMonthlyRollupRepository extends JpaRepository<TransactionMonthlyRollup, Long> {
+    
+    Optional<TransactionMonthlyRollup> findByYearAndMonthAndTypeAndStatus(int year, int month,
+                                                                          Transaction.TransactionType type,
+                                                                          Transaction.TransactionStatus status);
+    
+    // Same shape as TransactionRepository.getMonthlyTransactionStats: year, month, count
+    @Query("SELECT r.year, r.month, SUM(r.transactionCount) FROM TransactionMonthlyRollup r " +
+           "WHERE r.year * 100 + r.month >= :startYearMonth GROUP BY r.year, r.month")
+    List<Object[]> getMonthlyTransactionStats(@Param("startYearMonth") int startYearMonth);
+    
+    @Query("SELECT COALESCE(SUM(r.transactionCount), 0) FROM TransactionMonthlyRollup r")
+    long sumAll();
+    
+    @Query("SELECT COALESCE(SUM(r.transactionCount), 0) FROM TransactionMonthlyRollup r WHERE r.status = :status")
+    long sumByStatus(@Param("status") Transaction.TransactionStatus status);
+}
@@ -1,18 +1,94 @@
 package com.library.transaction.repository;
 
+import com.library.transaction.dto.TransactionResponseDto;
 import com.library.transaction.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     
+    // Read-only DTO projection: rows are selected straight into TransactionResponseDto, so list
+    // endpoints skip entity snapshots and first-level cache growth. Pass Pageable.unpaged() for all rows.
+    String RESPONSE_PROJECTION = "SELECT new com.library.transaction.dto.TransactionResponseDto(" +
+            "t.id, t.userId, t.bookId, t.userEmail, t.bookTitle, t.bookAuthor, t.bookIsbn, t.type, t.status, " +
+            "t.borrowedAt, t.dueDate, t.returnedAt, t.createdAt, t.updatedAt, t.notes) FROM Transaction t ";
+    
+    @Query(value = RESPONSE_PROJECTION + "WHERE t.userId = :userId",
+           countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.userId = :userId")
+    Page<TransactionResponseDto> findResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query(value = RESPONSE_PROJECTION + "WHERE t.bookId = :bookId",
+           countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.bookId = :bookId")
+    Page<TransactionResponseDto> findResponsesByBookId(@Param("bookId") Long bookId, Pageable pageable);
+    
+    @Query(value = RESPONSE_PROJECTION + "WHERE t.status = :status",
+           countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.status = :status")
+    Page<TransactionResponseDto> findResponsesByStatus(@Param("status") Transaction.TransactionStatus status,
+                                                       Pageable pageable);
+    
+    @Query(value = RESPONSE_PROJECTION + "WHERE t.dueDate < :currentDate AND t.status = :status",
+           countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.dueDate < :currentDate AND t.status = :status")
+    Page<TransactionResponseDto> findOverdueResponses(@Param("currentDate") LocalDateTime currentDate,
+                                                      @Param("status") Transaction.TransactionStatus status,
+                                                      Pageable pageable);
+    
+    @Query(value = RESPONSE_PROJECTION + "WHERE t.createdAt BETWEEN :startDate AND :endDate",
+           countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.createdAt BETWEEN :startDate AND :endDate")
+    Page<TransactionResponseDto> findResponsesByDateRange(@Param("startDate") LocalDateTime startDate,
+                                                          @Param("endDate") LocalDateTime endDate,
+                                                          Pageable pageable);
+    
+    // Forward-only cursor over a date range; must be consumed and closed inside a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(RESPONSE_PROJECTION + "WHERE t.createdAt BETWEEN :startDate AND :endDate ORDER BY t.createdAt")
+    Stream<TransactionResponseDto> streamResponsesByDateRange(@Param("startDate") LocalDateTime startDate,
+                                                              @Param("endDate") LocalDateTime endDate);
+    
+    // Archival: oldest closed loans first, one batch at a time
+    @Query("SELECT t.id FROM Transaction t WHERE t.status IN :statuses AND t.updatedAt < :cutoff ORDER BY t.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<Transaction.TransactionStatus> statuses,
+                                 @Param("cutoff") LocalDateTime cutoff,
+                                 Pageable pageable);
+    
+    // Archival: counts carried over into the monthly rollups before the rows leave this table
+    @Query("SELECT YEAR(t.createdAt), MONTH(t.createdAt), t.type, t.status, COUNT(t) FROM Transaction t " +
+           "WHERE t.id IN :ids GROUP BY YEAR(t.createdAt), MONTH(t.createdAt), t.type, t.status")
+    List<Object[]> countForRollup(@Param("ids") Collection<Long> ids);
+    
+    // (userId, bookId) pairs that seed ActiveLoanIndex
+    @Query("SELECT t.userId, t.bookId FROM Transaction t WHERE t.status = :status")
+    List<Object[]> findLoanPairsByStatus(@Param("status") Transaction.TransactionStatus status);
+    
+    // Reservations: WAITING and HELD rows in queue order, to rebuild ReservationService's queues
+    List<Transaction> findByStatusInOrderByCreatedAtAscIdAsc(Collection<Transaction.TransactionStatus> statuses);
+    
+    // Reservations: one book's queue, head first
+    List<Transaction> findByBookIdAndStatusInOrderByCreatedAtAscIdAsc(Long bookId, Collection<Transaction.TransactionStatus> statuses);
+    
+    Optional<Transaction> findFirstByBookIdAndStatusOrderByCreatedAtAscIdAsc(Long bookId, Transaction.TransactionStatus status);
+    
+    // Reservations: holds whose collection window has passed
+    @Query("SELECT t.id FROM Transaction t WHERE t.status = :status AND t.dueDate < :now ORDER BY t.dueDate")
+    List<Long> findIdsByStatusAndDueDateBefore(@Param("status") Transaction.TransactionStatus status,
+                                               @Param("now") LocalDateTime now);
+    
+    // Scalar lookup, so the entity itself is first loaded after the caller has taken its lock
+    @Query("SELECT t.bookId FROM Transaction t WHERE t.id = :id")
+    Optional<Long> findBookIdById(@Param("id") Long id);
+    
     // Find transactions by user
     List<Transaction> findByUserId(Long userId);
     
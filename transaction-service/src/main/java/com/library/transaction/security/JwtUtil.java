@@ -2,6 +2,7 @@ package com.library.transaction.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -56,4 +57,16 @@ public class JwtUtil {
         Claims claims = extractAllClaims(token);
         return claims.get("role", String.class);
     }
+
+    // Short-lived token for calls made by scheduled jobs, which have no caller JWT to forward
+    public String generateServiceToken(String subject) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(subject)
+                .claim("role", "SYSTEM")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + 60_000))
+                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
 }
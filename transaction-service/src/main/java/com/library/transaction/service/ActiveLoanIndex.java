@@ -0,0 +1,274 @@
+package com.library.transaction.service;
+
+import com.library.transaction.entity.Transaction;
+import com.library.transaction.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process index of ACTIVE loans: userId -> sorted bookIds, held in an open-addressing table
+ * keyed by primitive longs. Built from the database once the application is ready and kept
+ * current by borrow/return after their transactions commit, so the duplicate-borrow and
+ * borrowing-limit checks never touch the transactions table.
+ * <p>
+ * The index only sees loans written through this instance; with several transaction-service
+ * replicas on one database set library.loan-index.enabled=false.
+ */
+@Component
+public class ActiveLoanIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveLoanIndex.class);
+
+    private static final long EMPTY = 0L;
+    private static final long[] NO_BOOKS = new long[0];
+    private static final float MAX_LOAD = 0.5f;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Value("${library.loan-index.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Changes committed while the initial load is running, replayed on top of the snapshot
+    private final Queue<Runnable> pendingChanges = new ArrayDeque<>();
+
+    private volatile boolean ready;
+
+    // Open addressing with linear probing; userId 0 cannot be a key slot, so it lives on its own
+    private long[] userIds = new long[64];
+    private long[][] bookIds = new long[64][];
+    private int size;
+    private long[] zeroUserBooks;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            logger.info("Active-loan index disabled, borrow checks query the database");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<Object[]> loans;
+        try {
+            loans = transactionRepository.findLoanPairsByStatus(Transaction.TransactionStatus.ACTIVE);
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ Active-loan index not built, borrow checks stay on the database: {}", e.getMessage());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Object[] loan : loans) {
+                put((Long) loan[0], (Long) loan[1]);
+            }
+            while (!pendingChanges.isEmpty()) {
+                pendingChanges.poll().run();
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("📇 Active-loan index built: {} loans for {} users in {} ms",
+                   loans.size(), userCount(), System.currentTimeMillis() - start);
+    }
+
+    // Until the index is loaded callers fall back to the database queries
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean hasLoan(long userId, long bookId) {
+        lock.readLock().lock();
+        try {
+            return Arrays.binarySearch(books(userId), bookId) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countLoans(long userId) {
+        lock.readLock().lock();
+        try {
+            return books(userId).length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Applied only if the surrounding transaction commits, so a rolled-back borrow leaves no trace
+    public void addAfterCommit(long userId, long bookId) {
+        afterCommit(() -> put(userId, bookId));
+    }
+
+    public void removeAfterCommit(long userId, long bookId) {
+        afterCommit(() -> remove(userId, bookId));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                change.run();
+            } else {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int userCount() {
+        lock.readLock().lock();
+        try {
+            return size + (zeroUserBooks != null ? 1 : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- table operations, callers hold the lock ----
+
+    private long[] books(long userId) {
+        if (userId == EMPTY) {
+            return zeroUserBooks != null ? zeroUserBooks : NO_BOOKS;
+        }
+        int slot = slotOf(userId);
+        return userIds[slot] == EMPTY ? NO_BOOKS : bookIds[slot];
+    }
+
+    private void put(long userId, long bookId) {
+        if (userId == EMPTY) {
+            zeroUserBooks = withBook(zeroUserBooks != null ? zeroUserBooks : NO_BOOKS, bookId);
+            return;
+        }
+        int slot = slotOf(userId);
+        if (userIds[slot] == EMPTY) {
+            userIds[slot] = userId;
+            bookIds[slot] = new long[]{bookId};
+            if (++size > userIds.length * MAX_LOAD) {
+                resize(userIds.length * 2);
+            }
+        } else {
+            bookIds[slot] = withBook(bookIds[slot], bookId);
+        }
+    }
+
+    private void remove(long userId, long bookId) {
+        if (userId == EMPTY) {
+            if (zeroUserBooks != null) {
+                zeroUserBooks = withoutBook(zeroUserBooks, bookId);
+                if (zeroUserBooks.length == 0) {
+                    zeroUserBooks = null;
+                }
+            }
+            return;
+        }
+        int slot = slotOf(userId);
+        if (userIds[slot] == EMPTY) {
+            return;
+        }
+        long[] remaining = withoutBook(bookIds[slot], bookId);
+        if (remaining.length > 0) {
+            bookIds[slot] = remaining;
+            return;
+        }
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int mask = userIds.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (userIds[next] != EMPTY) {
+            int home = hash(userIds[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                userIds[gap] = userIds[next];
+                bookIds[gap] = bookIds[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        userIds[gap] = EMPTY;
+        bookIds[gap] = null;
+        size--;
+    }
+
+    // Slot holding userId, or the empty slot where it would go
+    private int slotOf(long userId) {
+        int mask = userIds.length - 1;
+        int slot = hash(userId) & mask;
+        while (userIds[slot] != EMPTY && userIds[slot] != userId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        long[] oldUserIds = userIds;
+        long[][] oldBookIds = bookIds;
+        userIds = new long[capacity];
+        bookIds = new long[capacity][];
+        for (int i = 0; i < oldUserIds.length; i++) {
+            if (oldUserIds[i] != EMPTY) {
+                int slot = slotOf(oldUserIds[i]);
+                userIds[slot] = oldUserIds[i];
+                bookIds[slot] = oldBookIds[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static long[] withBook(long[] books, long bookId) {
+        int pos = Arrays.binarySearch(books, bookId);
+        if (pos >= 0) {
+            return books;
+        }
+        int insertAt = -pos - 1;
+        long[] result = new long[books.length + 1];
+        System.arraycopy(books, 0, result, 0, insertAt);
+        result[insertAt] = bookId;
+        System.arraycopy(books, insertAt, result, insertAt + 1, books.length - insertAt);
+        return result;
+    }
+
+    private static long[] withoutBook(long[] books, long bookId) {
+        int pos = Arrays.binarySearch(books, bookId);
+        if (pos < 0) {
+            return books;
+        }
+        long[] result = new long[books.length - 1];
+        System.arraycopy(books, 0, result, 0, pos);
+        System.arraycopy(books, pos + 1, result, pos, books.length - pos - 1);
+        return result;
+    }
+}
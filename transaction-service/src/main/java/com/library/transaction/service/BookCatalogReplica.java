@@ -0,0 +1,154 @@
+package com.library.transaction.service;
+
+import com.library.transaction.client.BookServiceClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local read replica of book-service's catalog, so a borrow can copy title, author and isbn
+ * without a Feign round trip. Bootstrapped from a full snapshot, then refreshed by polling for
+ * books whose updatedAt moved past the last one seen; a periodic full resync drops deleted books.
+ * <p>
+ * availableCopies here is only a hint. book-service's conditional decrement on /borrow stays the
+ * authoritative availability check.
+ */
+@Component
+public class BookCatalogReplica {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookCatalogReplica.class);
+
+    private static final String AVAILABLE = "AVAILABLE";
+
+    @Autowired
+    private BookServiceClient bookServiceClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.book-replica.enabled:true}")
+    private boolean enabled;
+
+    // Re-read this far behind the watermark so rows committed late with an older updatedAt are not missed
+    @Value("${library.book-replica.poll-overlap-seconds:5}")
+    private long pollOverlapSeconds;
+
+    @Value("${library.book-replica.full-resync-minutes:15}")
+    private long fullResyncMinutes;
+
+    private volatile Map<Long, BookServiceClient.BookCatalogEntryDto> books = new ConcurrentHashMap<>();
+    private volatile LocalDateTime watermark;
+    private volatile long lastFullSyncMillis;
+    private volatile boolean ready;
+
+    // Bootstrap and the poller never overlap; a refresh already in flight makes the other one a no-op
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void registerMetrics() {
+        hits = Counter.builder("library.book.replica.lookups").tag("result", "hit")
+                .description("Borrow lookups answered by the local book catalog").register(meterRegistry);
+        misses = Counter.builder("library.book.replica.lookups").tag("result", "miss")
+                .description("Borrow lookups answered by the local book catalog").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.book-replica.poll-interval-ms:5000}",
+               initialDelayString = "${library.book-replica.poll-interval-ms:5000}")
+    public void refresh() {
+        if (!enabled || !refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            if (!ready || System.currentTimeMillis() - lastFullSyncMillis > fullResyncMinutes * 60_000) {
+                fullSync();
+            } else {
+                deltaSync();
+            }
+        } catch (RuntimeException e) {
+            // Entries keep serving; borrow falls back to book-service for anything missing
+            logger.warn("⚠️ Book catalog refresh failed: {}", e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Book details for a borrow, or empty when the replica cannot vouch for availability
+     * (not loaded, unknown book, or no copies left as far as it knows) and book-service should be asked.
+     */
+    public Optional<BookServiceClient.BookDto> findAvailable(long bookId) {
+        BookServiceClient.BookCatalogEntryDto entry = ready ? books.get(bookId) : null;
+        if (entry == null || !AVAILABLE.equals(entry.getStatus())
+                || entry.getAvailableCopies() == null || entry.getAvailableCopies() <= 0) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        BookServiceClient.BookDto book = new BookServiceClient.BookDto();
+        book.setId(entry.getId());
+        book.setTitle(entry.getTitle());
+        book.setAuthor(entry.getAuthor());
+        book.setIsbn(entry.getIsbn());
+        book.setAvailableCopies(entry.getAvailableCopies());
+        return Optional.of(book);
+    }
+
+    private void fullSync() {
+        long start = System.currentTimeMillis();
+        List<BookServiceClient.BookCatalogEntryDto> snapshot = bookServiceClient.getCatalog(null);
+        Map<Long, BookServiceClient.BookCatalogEntryDto> fresh = new ConcurrentHashMap<>(snapshot.size() * 2);
+        LocalDateTime latest = null;
+        for (BookServiceClient.BookCatalogEntryDto entry : snapshot) {
+            fresh.put(entry.getId(), entry);
+            latest = later(latest, entry.getUpdatedAt());
+        }
+        books = fresh;
+        watermark = latest;
+        lastFullSyncMillis = start;
+        ready = true;
+        logger.info("📚 Book catalog replica synced: {} books in {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    private void deltaSync() {
+        LocalDateTime since = watermark != null ? watermark.minusSeconds(pollOverlapSeconds) : null;
+        List<BookServiceClient.BookCatalogEntryDto> changes = bookServiceClient.getCatalog(since);
+        LocalDateTime latest = watermark;
+        for (BookServiceClient.BookCatalogEntryDto entry : changes) {
+            books.put(entry.getId(), entry);
+            latest = later(latest, entry.getUpdatedAt());
+        }
+        watermark = latest;
+    }
+
+    private static LocalDateTime later(LocalDateTime current, LocalDateTime candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.isAfter(current) ? candidate : current;
+    }
+}
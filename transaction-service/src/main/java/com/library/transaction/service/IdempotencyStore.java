@@ -0,0 +1,162 @@
+package com.library.transaction.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Result store behind the Idempotency-Key header on borrow and return. The first request with a
+ * key runs; duplicates arriving while it is in flight wait for its outcome, later ones get the
+ * stored response replayed. Only 2xx responses are kept, so a request that failed can be retried.
+ * <p>
+ * Keys are scoped to the authenticated caller and bound to a fingerprint of the request, so
+ * reusing a key for a different request is rejected. Entries expire after library.idempotency.ttl-minutes
+ * and the store never holds more than library.idempotency.max-entries completed results.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.idempotency.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${library.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${library.idempotency.in-flight-wait-ms:10000}")
+    private long inFlightWaitMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Insertion order doubles as expiry order: the eldest entry always expires first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public ResponseEntity<?> execute(String idempotencyKey, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        String key = callerScope() + ":" + idempotencyKey;
+        Entry entry;
+        boolean owner = false;
+        lock.lock();
+        try {
+            evictExpired();
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(fingerprint);
+                entries.put(key, entry);
+                owner = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!entry.fingerprint.equals(fingerprint)) {
+            outcome("mismatch");
+            return ResponseEntity.unprocessableEntity().body("Idempotency-Key was already used for a different request");
+        }
+        return owner ? runFirst(key, entry, action) : awaitFirst(entry);
+    }
+
+    private ResponseEntity<?> runFirst(String key, Entry entry, Supplier<ResponseEntity<?>> action) {
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            forget(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            forget(key, entry);
+        }
+        entry.result.complete(response);
+        outcome("executed");
+        return response;
+    }
+
+    private ResponseEntity<?> awaitFirst(Entry entry) {
+        try {
+            ResponseEntity<?> response = entry.result.get(inFlightWaitMs, TimeUnit.MILLISECONDS);
+            outcome("replayed");
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(response.getHeaders())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(response.getBody());
+        } catch (TimeoutException e) {
+            outcome("in_flight");
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("A request with this Idempotency-Key is still in progress, please retry");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private void forget(String key, Entry entry) {
+        lock.lock();
+        try {
+            entries.remove(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock. In-flight entries are never evicted, so waiters always find their owner.
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        long ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            boolean expired = now - eldest.createdAt > ttlMillis;
+            if (!expired && entries.size() <= maxEntries) {
+                break;
+            }
+            if (eldest.result.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static String callerScope() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private void outcome(String outcome) {
+        meterRegistry.counter("library.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final long createdAt = System.currentTimeMillis();
+        private final CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
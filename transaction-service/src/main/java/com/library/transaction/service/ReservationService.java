@@ -0,0 +1,378 @@
+package com.library.transaction.service;
+
+import com.library.transaction.client.BookServiceClient;
+import com.library.transaction.config.FeignClientInterceptor;
+import com.library.transaction.dto.TransactionResponseDto;
+import com.library.transaction.entity.Transaction;
+import com.library.transaction.repository.TransactionRepository;
+import com.library.transaction.security.JwtUtil;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Per-book FIFO waitlists built on RESERVE transactions. A member who finds a book out of stock
+ * queues up once (WAITING) instead of retrying borrow; when a copy comes back, returnBook keeps
+ * it checked out of book-service and hands it to the head of the queue as a hold (HELD, dueDate =
+ * collection deadline). Borrowing a held copy completes the reservation without touching
+ * book-service; a hold that is cancelled or runs out passes to the next waiter, or goes back on
+ * the shelf when nobody is left.
+ * <p>
+ * The rows are the source of truth. The queues kept here mirror them after commit, and every
+ * change to one book's queue runs under that book's "reservation" stripe until its transaction
+ * completes. Like ActiveLoanIndex the queues only see this instance's writes.
+ */
+@Service
+public class ReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
+
+    private static final String LOCK_NAMESPACE = "reservation";
+    private static final List<Transaction.TransactionStatus> OPEN =
+            List.of(Transaction.TransactionStatus.WAITING, Transaction.TransactionStatus.HELD);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StripedLockManager stripedLockManager;
+
+    @Autowired
+    private BookServiceClient bookServiceClient;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.reservations.hold-hours:48}")
+    private long holdHours;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, BookQueue> queues = new HashMap<>();
+
+    // Changes committed while the initial load is running, replayed on top of it
+    private final Queue<Runnable> pendingChanges = new ArrayDeque<>();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Transaction> open;
+        try {
+            open = transactionRepository.findByStatusInOrderByCreatedAtAscIdAsc(OPEN);
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ Reservation queues not loaded, lookups stay on the database: {}", e.getMessage());
+            return;
+        }
+        lock.lock();
+        try {
+            for (Transaction reservation : open) {
+                if (reservation.getStatus() == Transaction.TransactionStatus.HELD) {
+                    queue(reservation.getBookId()).held.put(reservation.getUserId(), reservation.getId());
+                } else {
+                    queue(reservation.getBookId()).waiting.add(new Waiter(reservation.getId(), reservation.getUserId()));
+                }
+            }
+            while (!pendingChanges.isEmpty()) {
+                pendingChanges.poll().run();
+            }
+            ready = true;
+        } finally {
+            lock.unlock();
+        }
+        logger.info("📋 Reservation queues loaded: {} open reservations for {} books", open.size(), queues.size());
+    }
+
+    /**
+     * Serializes queue changes for bookId until the current transaction completes. Callers that
+     * already hold a user stripe take this one second, never the other way round.
+     */
+    public void lockQueue(long bookId) {
+        stripedLockManager.lockUntilCompletion(LOCK_NAMESPACE, bookId);
+    }
+
+    public boolean hasOpenReservation(long userId, long bookId) {
+        if (!ready) {
+            return OPEN.stream().anyMatch(status ->
+                    transactionRepository.findByUserIdAndBookIdAndStatus(userId, bookId, status).isPresent());
+        }
+        return read(bookId, queue -> queue.held.containsKey(userId)
+                || queue.waiting.stream().anyMatch(waiter -> waiter.userId == userId));
+    }
+
+    public boolean hasWaiters(long bookId) {
+        if (!ready) {
+            return transactionRepository.findFirstByBookIdAndStatusOrderByCreatedAtAscIdAsc(
+                    bookId, Transaction.TransactionStatus.WAITING).isPresent();
+        }
+        return read(bookId, queue -> !queue.waiting.isEmpty());
+    }
+
+    // Cheap pre-check for borrowBook; claimHold makes the authoritative one under the queue lock
+    public boolean isHolding(long userId, long bookId) {
+        if (!ready) {
+            return transactionRepository.findByUserIdAndBookIdAndStatus(userId, bookId,
+                    Transaction.TransactionStatus.HELD).isPresent();
+        }
+        return read(bookId, queue -> queue.held.containsKey(userId));
+    }
+
+    // Caller saved the WAITING row in its transaction and holds the queue lock
+    public void enqueue(Transaction reservation) {
+        Waiter waiter = new Waiter(reservation.getId(), reservation.getUserId());
+        afterCommit(() -> queue(reservation.getBookId()).waiting.add(waiter));
+        count("queued");
+    }
+
+    /**
+     * Turns the user's hold on bookId into a completed reservation, inside the borrow transaction.
+     * The copy is already checked out of book-service, so the borrow must not decrement it again.
+     *
+     * @throws RuntimeException if the hold was cancelled or ran out in the meantime
+     */
+    public Transaction claimHold(long userId, long bookId) {
+        lockQueue(bookId);
+        Transaction hold = transactionRepository.findByUserIdAndBookIdAndStatus(userId, bookId,
+                        Transaction.TransactionStatus.HELD)
+                .filter(found -> found.getDueDate() == null || found.getDueDate().isAfter(LocalDateTime.now()))
+                .orElseThrow(() -> new RuntimeException("Your hold on this book has expired"));
+        hold.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transactionRepository.save(hold);
+        afterCommit(() -> dropHeld(bookId, userId));
+        count("claimed");
+        return hold;
+    }
+
+    /**
+     * Offers a copy that is being returned to the next member in line, inside the return
+     * transaction. Returns false when nobody is waiting and the copy should go back to book-service.
+     */
+    public boolean holdReturnedCopy(long bookId) {
+        lockQueue(bookId);
+        return holdForNextWaiter(bookId);
+    }
+
+    @Transactional
+    public TransactionResponseDto cancelReservation(Long reservationId) {
+        Long bookId = transactionRepository.findBookIdById(reservationId)
+                .orElseThrow(() -> new RuntimeException("Reservation not found with ID: " + reservationId));
+        lockQueue(bookId);
+        Transaction reservation = transactionRepository.findById(reservationId)
+                .filter(found -> found.getType() == Transaction.TransactionType.RESERVE)
+                .orElseThrow(() -> new RuntimeException("Reservation not found with ID: " + reservationId));
+        if (!OPEN.contains(reservation.getStatus())) {
+            throw new RuntimeException("Reservation is not open");
+        }
+        close(reservation, "Cancelled");
+        count("cancelled");
+        return new TransactionResponseDto(reservation);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransactionResponseDto> getQueue(Long bookId) {
+        return transactionRepository.findByBookIdAndStatusInOrderByCreatedAtAscIdAsc(bookId, OPEN).stream()
+                .map(TransactionResponseDto::new)
+                .toList();
+    }
+
+    // Each expired hold is closed in a transaction of its own, so one failure does not hold up the rest
+    @Scheduled(fixedDelayString = "${library.reservations.sweep-interval-ms:60000}",
+               initialDelayString = "${library.reservations.sweep-interval-ms:60000}")
+    public void expireHolds() {
+        List<Long> expired = transactionRepository.findIdsByStatusAndDueDateBefore(
+                Transaction.TransactionStatus.HELD, LocalDateTime.now());
+        for (Long id : expired) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> expire(id));
+            } catch (RuntimeException e) {
+                logger.warn("⚠️ Could not expire hold {}, retrying on the next sweep: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    private void expire(Long reservationId) {
+        Long bookId = transactionRepository.findBookIdById(reservationId).orElse(null);
+        if (bookId == null) {
+            return;
+        }
+        lockQueue(bookId);
+        transactionRepository.findById(reservationId)
+                .filter(hold -> hold.getStatus() == Transaction.TransactionStatus.HELD
+                        && hold.getDueDate() != null && hold.getDueDate().isBefore(LocalDateTime.now()))
+                .ifPresent(hold -> {
+                    close(hold, "Hold expired");
+                    count("expired");
+                });
+    }
+
+    // Caller holds the queue lock. A closed hold frees its copy for the next waiter or the shelf.
+    private void close(Transaction reservation, String note) {
+        boolean wasHeld = reservation.getStatus() == Transaction.TransactionStatus.HELD;
+        reservation.setStatus(Transaction.TransactionStatus.CANCELLED);
+        reservation.setNotes(note);
+        transactionRepository.save(reservation);
+        long bookId = reservation.getBookId();
+        long userId = reservation.getUserId();
+        long id = reservation.getId();
+        if (!wasHeld) {
+            afterCommit(() -> dropWaiting(bookId, id));
+            return;
+        }
+        afterCommit(() -> dropHeld(bookId, userId));
+        if (!holdForNextWaiter(bookId)) {
+            releaseCopy(bookId);
+        }
+    }
+
+    private boolean holdForNextWaiter(long bookId) {
+        Transaction next = nextWaiter(bookId);
+        if (next == null) {
+            return false;
+        }
+        next.setStatus(Transaction.TransactionStatus.HELD);
+        next.setDueDate(LocalDateTime.now().plusHours(holdHours));
+        transactionRepository.save(next);
+        long id = next.getId();
+        long userId = next.getUserId();
+        afterCommit(() -> {
+            dropWaiting(bookId, id);
+            queue(bookId).held.put(userId, id);
+        });
+        count("held");
+        logger.info("📬 Copy of book {} held for user {} until {}", bookId, userId, next.getDueDate());
+        return true;
+    }
+
+    private Transaction nextWaiter(long bookId) {
+        if (!ready) {
+            return transactionRepository.findFirstByBookIdAndStatusOrderByCreatedAtAscIdAsc(
+                    bookId, Transaction.TransactionStatus.WAITING).orElse(null);
+        }
+        Long headId = read(bookId, queue -> queue.waiting.isEmpty() ? null : queue.waiting.peek().reservationId);
+        if (headId == null) {
+            return null;
+        }
+        return transactionRepository.findById(headId)
+                .filter(found -> found.getStatus() == Transaction.TransactionStatus.WAITING)
+                .orElseGet(() -> transactionRepository.findFirstByBookIdAndStatusOrderByCreatedAtAscIdAsc(
+                        bookId, Transaction.TransactionStatus.WAITING).orElse(null));
+    }
+
+    // Request threads forward the caller's JWT; the sweep has none, so it signs its own
+    private void releaseCopy(long bookId) {
+        String authorization = FeignClientInterceptor.currentAuthorization();
+        if (authorization == null) {
+            authorization = "Bearer " + jwtUtil.generateServiceToken("transaction-service");
+        }
+        try {
+            FeignClientInterceptor.withAuthorization(authorization, () -> bookServiceClient.returnBook(bookId));
+        } catch (FeignException e) {
+            logger.error("Failed to release held copy of book ID: {}", bookId);
+            throw new RuntimeException("Failed to update book inventory");
+        }
+    }
+
+    private void count(String event) {
+        meterRegistry.counter("library.reservations", "event", event).increment();
+    }
+
+    // ---- in-memory queues, changed only after commit ----
+
+    private void afterCommit(Runnable change) {
+        Runnable locked = () -> {
+            lock.lock();
+            try {
+                if (ready) {
+                    change.run();
+                } else {
+                    pendingChanges.add(change);
+                }
+            } finally {
+                lock.unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    locked.run();
+                }
+            });
+        } else {
+            locked.run();
+        }
+    }
+
+    private <T> T read(long bookId, Function<BookQueue, T> reader) {
+        lock.lock();
+        try {
+            BookQueue queue = queues.get(bookId);
+            return reader.apply(queue != null ? queue : BookQueue.EMPTY);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Callers hold the lock
+    private BookQueue queue(long bookId) {
+        return queues.computeIfAbsent(bookId, ignored -> new BookQueue());
+    }
+
+    private void dropWaiting(long bookId, long reservationId) {
+        BookQueue queue = queues.get(bookId);
+        if (queue != null) {
+            queue.waiting.removeIf(waiter -> waiter.reservationId == reservationId);
+            dropIfEmpty(bookId, queue);
+        }
+    }
+
+    private void dropHeld(long bookId, long userId) {
+        BookQueue queue = queues.get(bookId);
+        if (queue != null) {
+            queue.held.remove(userId);
+            dropIfEmpty(bookId, queue);
+        }
+    }
+
+    private void dropIfEmpty(long bookId, BookQueue queue) {
+        if (queue.waiting.isEmpty() && queue.held.isEmpty()) {
+            queues.remove(bookId);
+        }
+    }
+
+    private record Waiter(long reservationId, long userId) {
+    }
+
+    private static final class BookQueue {
+        private static final BookQueue EMPTY = new BookQueue();
+
+        private final ArrayDeque<Waiter> waiting = new ArrayDeque<>();
+        // userId -> reservation id of the hold
+        private final Map<Long, Long> held = new HashMap<>();
+    }
+}
@@ -0,0 +1,94 @@
+package com.library.transaction.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-key mutual exclusion for check-then-act flows such as borrowBook. Keys hash onto a fixed
+ * array of locks per namespace ("user", "book", ...), so memory stays constant and two keys only
+ * contend when they share a stripe. Waits are bounded and timed as library.lock.wait.
+ * <p>
+ * Locks are held until the surrounding database transaction completes, so the next request for
+ * the same key sees the committed row (and the active-loan index updated after commit).
+ * They guard a single instance only.
+ */
+@Component
+public class StripedLockManager {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.locks.stripes:4096}")
+    private int stripes;
+
+    @Value("${library.locks.wait-timeout-ms:2000}")
+    private long waitTimeoutMs;
+
+    private final Map<String, ReentrantLock[]> locksByNamespace = new ConcurrentHashMap<>();
+
+    /**
+     * Acquires the stripe for key and releases it after the current transaction commits or rolls back.
+     *
+     * @throws LockTimeoutException if the lock is not free within library.locks.wait-timeout-ms
+     */
+    public void lockUntilCompletion(String namespace, long key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("lockUntilCompletion needs an active transaction");
+        }
+        ReentrantLock lock = stripe(namespace, key);
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        waitTimer(namespace, acquired ? "acquired" : "timeout").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            throw new LockTimeoutException("Another request for this " + namespace + " is still in progress, please retry");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private ReentrantLock stripe(String namespace, long key) {
+        ReentrantLock[] locks = locksByNamespace.computeIfAbsent(namespace, ignored -> {
+            ReentrantLock[] created = new ReentrantLock[Integer.highestOneBit(Math.max(stripes, 1))];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = new ReentrantLock();
+            }
+            return created;
+        });
+        long h = key * 0x9E3779B97F4A7C15L;
+        return locks[(int) (h ^ (h >>> 32)) & (locks.length - 1)];
+    }
+
+    private Timer waitTimer(String namespace, String outcome) {
+        return Timer.builder("library.lock.wait")
+                .description("Time spent waiting for a striped per-key lock")
+                .tag("namespace", namespace)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public static class LockTimeoutException extends RuntimeException {
+        public LockTimeoutException(String message) {
+            super(message);
+        }
+    }
+}
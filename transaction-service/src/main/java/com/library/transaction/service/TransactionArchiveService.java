@@ -0,0 +1,118 @@
+package com.library.transaction.service;
+
+import com.library.transaction.entity.Transaction;
+import com.library.transaction.entity.TransactionMonthlyRollup;
+import com.library.transaction.repository.ArchivedTransactionRepository;
+import com.library.transaction.repository.TransactionMonthlyRollupRepository;
+import com.library.transaction.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves closed loans older than the retention window from the live transactions table into
+ * transactions_archive. Each batch is one database transaction: count into the monthly rollups,
+ * copy into the archive, delete from the live table. If two instances pick the same batch the
+ * archive's primary key rejects the second copy and that batch rolls back untouched.
+ */
+@Service
+public class TransactionArchiveService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiveService.class);
+    
+    private static final Set<Transaction.TransactionStatus> CLOSED_STATUSES = EnumSet.of(
+            Transaction.TransactionStatus.COMPLETED,
+            Transaction.TransactionStatus.RETURNED,
+            Transaction.TransactionStatus.CANCELLED);
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private ArchivedTransactionRepository archivedTransactionRepository;
+    
+    @Autowired
+    private TransactionMonthlyRollupRepository rollupRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${library.archive.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${library.archive.retention-days:90}")
+    private int retentionDays;
+    
+    @Value("${library.archive.batch-size:1000}")
+    private int batchSize;
+    
+    private Counter archivedRows;
+    
+    @PostConstruct
+    void registerMetrics() {
+        archivedRows = Counter.builder("library.archive.rows")
+                .description("Closed transactions moved to the archive tier")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(cron = "${library.archive.cron:0 30 2 * * *}")
+    public void archiveClosedTransactions() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long start = System.currentTimeMillis();
+        long total = 0;
+        int moved;
+        do {
+            Integer batch = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            moved = batch != null ? batch : 0;
+            total += moved;
+        } while (moved == batchSize);
+        
+        if (total > 0) {
+            logger.info("🗄️ Archived {} closed transactions last updated before {} in {} ms",
+                       total, cutoff, System.currentTimeMillis() - start);
+        }
+    }
+    
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = transactionRepository.findArchivableIds(CLOSED_STATUSES, cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        
+        for (Object[] row : transactionRepository.countForRollup(ids)) {
+            int year = ((Number) row[0]).intValue();
+            int month = ((Number) row[1]).intValue();
+            Transaction.TransactionType type = (Transaction.TransactionType) row[2];
+            Transaction.TransactionStatus status = (Transaction.TransactionStatus) row[3];
+            TransactionMonthlyRollup rollup = rollupRepository
+                    .findByYearAndMonthAndTypeAndStatus(year, month, type, status)
+                    .orElseGet(() -> new TransactionMonthlyRollup(year, month, type, status));
+            rollup.add(((Number) row[4]).longValue());
+            rollupRepository.save(rollup);
+        }
+        
+        int copied = archivedTransactionRepository.copyFromLive(ids);
+        transactionRepository.deleteAllByIdInBatch(ids);
+        archivedRows.increment(copied);
+        return ids.size();
+    }
+}
@@ -0,0 +1,163 @@
+package com.library.transaction.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.transaction.dto.TransactionResponseDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a date range of transactions straight from the database cursor to the response.
+ * Rows are serialized one at a time and flushed in small chunks, so a slow client blocks the
+ * writer (and with it the cursor) instead of rows piling up in memory.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    private static final String CSV_HEADER = "id,userId,bookId,userEmail,bookTitle,bookAuthor,bookIsbn,type,status,"
+            + "borrowedAt,dueDate,returnedAt,createdAt,updatedAt,notes,overdue,daysOverdue";
+
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${library.export.flush-every-rows:500}")
+    private int flushEveryRows;
+
+    public long export(LocalDateTime startDate, LocalDateTime endDate, ExportFormat format, boolean gzip,
+                       OutputStream outputStream) throws IOException {
+        long start = System.currentTimeMillis();
+        OutputStream out = gzip ? new GZIPOutputStream(outputStream, 8192) : outputStream;
+        long rows;
+        try {
+            rows = transactionService.streamTransactionsByDateRange(startDate, endDate, transactions -> {
+                try {
+                    return format == ExportFormat.CSV ? writeCsv(transactions, out) : writeNdjson(transactions, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download; the cursor is already closed
+            logger.warn("⚠️ Transaction export aborted after {}ms: {}", System.currentTimeMillis() - start, e.getMessage());
+            throw e.getCause();
+        }
+        if (gzip) {
+            ((GZIPOutputStream) out).finish();
+        }
+        out.flush();
+        logger.info("📤 Exported {} transactions ({}{}) in {}ms", rows, format, gzip ? ", gzip" : "",
+                System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private long writeNdjson(Stream<TransactionResponseDto> transactions, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(TransactionResponseDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        long rows = 0;
+        Iterator<TransactionResponseDto> iterator = transactions.iterator();
+        while (iterator.hasNext()) {
+            writer.writeValue(generator, iterator.next());
+            generator.writeRaw('\n');
+            if (++rows % flushEveryRows == 0) {
+                generator.flush();
+            }
+        }
+        generator.close();
+        return rows;
+    }
+
+    private long writeCsv(Stream<TransactionResponseDto> transactions, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16384);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long rows = 0;
+        Iterator<TransactionResponseDto> iterator = transactions.iterator();
+        while (iterator.hasNext()) {
+            TransactionResponseDto t = iterator.next();
+            writer.write(String.valueOf(t.getId()));
+            writeCsvField(writer, t.getUserId());
+            writeCsvField(writer, t.getBookId());
+            writeCsvField(writer, t.getUserEmail());
+            writeCsvField(writer, t.getBookTitle());
+            writeCsvField(writer, t.getBookAuthor());
+            writeCsvField(writer, t.getBookIsbn());
+            writeCsvField(writer, t.getType());
+            writeCsvField(writer, t.getStatus());
+            writeCsvField(writer, t.getBorrowedAt());
+            writeCsvField(writer, t.getDueDate());
+            writeCsvField(writer, t.getReturnedAt());
+            writeCsvField(writer, t.getCreatedAt());
+            writeCsvField(writer, t.getUpdatedAt());
+            writeCsvField(writer, t.getNotes());
+            writeCsvField(writer, t.isOverdue());
+            writeCsvField(writer, t.getDaysOverdue());
+            writer.write('\n');
+            if (++rows % flushEveryRows == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+}
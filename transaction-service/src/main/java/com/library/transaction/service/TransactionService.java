@@ -1,80 +1,139 @@
 package com.library.transaction.service;
 
+import com.library.transaction.client.AsyncServiceClients;
+import com.library.transaction.client.BatchLoader;
 import com.library.transaction.client.BookServiceClient;
 import com.library.transaction.client.UserServiceClient;
 import com.library.transaction.dto.TransactionDto;
 import com.library.transaction.dto.TransactionResponseDto;
 import com.library.transaction.entity.Transaction;
+import com.library.transaction.repository.ArchivedTransactionRepository;
+import com.library.transaction.repository.TransactionMonthlyRollupRepository;
 import com.library.transaction.repository.TransactionRepository;
 import feign.FeignException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
-@Transactional
 public class TransactionService {
     
     private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
     
+    // History pages are ordered newest first unless the caller sorts them (see TransactionController#pageable)
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt");
+    
+    // Export cursors are ordered oldest first
+    private static final Comparator<TransactionResponseDto> OLDEST_FIRST = Comparator.comparing(
+            TransactionResponseDto::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+    
+    // Properties the two history tiers can be merged on, each in ascending order
+    private static final Map<String, Comparator<TransactionResponseDto>> MERGEABLE_SORTS = Map.of(
+            "createdAt", OLDEST_FIRST,
+            "id", Comparator.comparing(TransactionResponseDto::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+    
     @Autowired
     private TransactionRepository transactionRepository;
     
     @Autowired
-    private UserServiceClient userServiceClient;
+    private ArchivedTransactionRepository archivedTransactionRepository;
+    
+    @Autowired
+    private TransactionMonthlyRollupRepository rollupRepository;
+    
+    @Autowired
+    private ActiveLoanIndex activeLoanIndex;
+    
+    @Autowired
+    private BookCatalogReplica bookCatalogReplica;
+    
+    @Autowired
+    private AsyncServiceClients asyncServiceClients;
+    
+    @Autowired
+    private StripedLockManager stripedLockManager;
+    
+    @Autowired
+    private ReservationService reservationService;
+    
+    @Value("${library.async-clients.timeout-ms:3000}")
+    private long validationTimeoutMs;
+    
+    @Value("${library.archive.max-page-depth:10000}")
+    private long maxPageDepth;
     
     @Autowired
     private BookServiceClient bookServiceClient;
     
+    @Transactional
     public TransactionResponseDto borrowBook(TransactionDto transactionDto) {
         logger.info("Processing borrow request for user: {} and book: {}", 
                    transactionDto.getUserId(), transactionDto.getBookId());
         
-        // Validate user exists
-        UserServiceClient.UserDto user;
-        try {
-            user = userServiceClient.getUserById(transactionDto.getUserId());
-        } catch (FeignException e) {
-            throw new RuntimeException("User not found with ID: " + transactionDto.getUserId());
-        }
+        // A member collecting a held copy does not need one on the shelf
+        boolean holding = reservationService.isHolding(transactionDto.getUserId(), transactionDto.getBookId());
         
-        // Validate book exists and is available
-        BookServiceClient.BookDto book;
-        try {
-            book = bookServiceClient.getBookById(transactionDto.getBookId());
-        } catch (FeignException e) {
-            throw new RuntimeException("Book not found with ID: " + transactionDto.getBookId());
-        }
+        // Validate user exists and book is available; both lookups run while the local checks below do.
+        // The local catalog answers for the book unless it has no copy in stock.
+        CompletableFuture<UserServiceClient.UserDto> userCall = asyncServiceClients.getUserById(transactionDto.getUserId());
+        CompletableFuture<BookServiceClient.BookDto> bookCall = bookCatalogReplica.findAvailable(transactionDto.getBookId())
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> asyncServiceClients.getBookById(transactionDto.getBookId()));
         
-        if (book.getAvailableCopies() <= 0) {
-            throw new RuntimeException("Book is not available for borrowing");
-        }
+        CompletableFuture<UserServiceClient.UserDto> userLookup = rejectOnFeignError(userCall,
+                "User not found with ID: " + transactionDto.getUserId());
+        CompletableFuture<BookServiceClient.BookDto> bookLookup = rejectOnFeignError(bookCall,
+                "Book not found with ID: " + transactionDto.getBookId())
+                .thenApply(found -> {
+                    if (!holding && found.getAvailableCopies() <= 0) {
+                        throw new RuntimeException("Book is not available for borrowing, reserve it to join the waitlist");
+                    }
+                    return found;
+                });
         
-        // Check if user already has this book borrowed
-        Optional<Transaction> existingTransaction = transactionRepository
-                .findByUserIdAndBookIdAndStatus(transactionDto.getUserId(), 
-                                              transactionDto.getBookId(), 
-                                              Transaction.TransactionStatus.ACTIVE);
-        
-        if (existingTransaction.isPresent()) {
-            throw new RuntimeException("User has already borrowed this book");
-        }
-        
-        // Check user's borrowing limit (max 5 books)
-        long activeTransactions = transactionRepository
-                .countActiveTransactionsByUser(transactionDto.getUserId(), 
-                                             Transaction.TransactionStatus.ACTIVE);
-        
-        if (activeTransactions >= 5) {
-            throw new RuntimeException("User has reached maximum borrowing limit (5 books)");
+        try {
+            // Serializes this user's borrows until commit, so two requests cannot both pass the checks
+            stripedLockManager.lockUntilCompletion("user", transactionDto.getUserId());
+            checkBorrowingRules(transactionDto);
+            awaitAllFailFast(userLookup, bookLookup);
+        } catch (RuntimeException e) {
+            userCall.cancel(true);
+            bookCall.cancel(true);
+            throw e;
         }
+        UserServiceClient.UserDto user = userLookup.join();
+        BookServiceClient.BookDto book = bookLookup.join();
+        Transaction hold = holding ? reservationService.claimHold(transactionDto.getUserId(), transactionDto.getBookId()) : null;
         
         // Create transaction
         Transaction transaction = new Transaction(transactionDto.getUserId(), 
@@ -95,18 +154,137 @@ public class TransactionService {
         // Save transaction
         transaction = transactionRepository.save(transaction);
         
-        // Update book inventory
-        try {
-            bookServiceClient.borrowBook(transactionDto.getBookId());
-        } catch (FeignException e) {
-            logger.error("Failed to update book inventory for book ID: {}", transactionDto.getBookId());
-            throw new RuntimeException("Failed to update book inventory");
+        // Update book inventory; a held copy was never put back on the shelf
+        if (hold == null) {
+            try {
+                bookServiceClient.borrowBook(transactionDto.getBookId());
+            } catch (FeignException e) {
+                logger.error("Failed to update book inventory for book ID: {}", transactionDto.getBookId());
+                throw new RuntimeException("Failed to update book inventory");
+            }
         }
+        activeLoanIndex.addAfterCommit(transaction.getUserId(), transaction.getBookId());
         
         logger.info("Book borrowed successfully. Transaction ID: {}", transaction.getId());
         return new TransactionResponseDto(transaction);
     }
     
+    @Transactional
+    public TransactionResponseDto reserveBook(TransactionDto transactionDto) {
+        logger.info("Processing reservation request for user: {} and book: {}", 
+                   transactionDto.getUserId(), transactionDto.getBookId());
+        
+        CompletableFuture<UserServiceClient.UserDto> userCall = asyncServiceClients.getUserById(transactionDto.getUserId());
+        CompletableFuture<UserServiceClient.UserDto> userLookup = rejectOnFeignError(userCall,
+                "User not found with ID: " + transactionDto.getUserId());
+        CompletableFuture<BookServiceClient.BookDto> bookCall = null;
+        try {
+            stripedLockManager.lockUntilCompletion("user", transactionDto.getUserId());
+            if (hasActiveLoan(transactionDto.getUserId(), transactionDto.getBookId())) {
+                throw new RuntimeException("User has already borrowed this book");
+            }
+            if (reservationService.hasOpenReservation(transactionDto.getUserId(), transactionDto.getBookId())) {
+                throw new RuntimeException("User already has a reservation for this book");
+            }
+            // Availability is read under the queue lock, so a return cannot shelve a copy unseen by this waiter
+            reservationService.lockQueue(transactionDto.getBookId());
+            bookCall = asyncServiceClients.getBookById(transactionDto.getBookId());
+            awaitAllFailFast(userLookup, rejectOnFeignError(bookCall, "Book not found with ID: " + transactionDto.getBookId()));
+        } catch (RuntimeException e) {
+            userCall.cancel(true);
+            if (bookCall != null) {
+                bookCall.cancel(true);
+            }
+            throw e;
+        }
+        UserServiceClient.UserDto user = userLookup.join();
+        BookServiceClient.BookDto book = bookCall.join();
+        if (book.getAvailableCopies() > 0 && !reservationService.hasWaiters(transactionDto.getBookId())) {
+            throw new RuntimeException("Book is available for borrowing, no reservation needed");
+        }
+        
+        Transaction reservation = new Transaction(transactionDto.getUserId(), 
+                                                transactionDto.getBookId(), 
+                                                Transaction.TransactionType.RESERVE);
+        reservation.setStatus(Transaction.TransactionStatus.WAITING);
+        reservation.setUserEmail(user.getEmail());
+        reservation.setBookTitle(book.getTitle());
+        reservation.setBookAuthor(book.getAuthor());
+        reservation.setBookIsbn(book.getIsbn());
+        reservation.setNotes(transactionDto.getNotes());
+        reservation = transactionRepository.save(reservation);
+        reservationService.enqueue(reservation);
+        
+        logger.info("Book reserved successfully. Transaction ID: {}", reservation.getId());
+        return new TransactionResponseDto(reservation);
+    }
+    
+    // Local rules, checked on the request thread inside its transaction
+    private void checkBorrowingRules(TransactionDto transactionDto) {
+        // Check if user already has this book borrowed
+        if (hasActiveLoan(transactionDto.getUserId(), transactionDto.getBookId())) {
+            throw new RuntimeException("User has already borrowed this book");
+        }
+        
+        // Check user's borrowing limit (max 5 books)
+        long activeTransactions = activeLoanIndex.isReady()
+                ? activeLoanIndex.countLoans(transactionDto.getUserId())
+                : transactionRepository.countActiveTransactionsByUser(transactionDto.getUserId(), 
+                                                                     Transaction.TransactionStatus.ACTIVE);
+        
+        if (activeTransactions >= 5) {
+            throw new RuntimeException("User has reached maximum borrowing limit (5 books)");
+        }
+    }
+    
+    private boolean hasActiveLoan(Long userId, Long bookId) {
+        return activeLoanIndex.isReady()
+                ? activeLoanIndex.hasLoan(userId, bookId)
+                : transactionRepository.findByUserIdAndBookIdAndStatus(userId, bookId, 
+                                                                      Transaction.TransactionStatus.ACTIVE).isPresent();
+    }
+    
+    // Waits for every lookup, but gives up as soon as any one of them fails
+    private void awaitAllFailFast(CompletableFuture<?>... lookups) {
+        CompletableFuture<Object> firstFailure = new CompletableFuture<>();
+        for (CompletableFuture<?> lookup : lookups) {
+            lookup.whenComplete((value, error) -> {
+                if (error != null) {
+                    firstFailure.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(lookups), firstFailure)
+                    .get(validationTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("User and book validation timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Borrow request interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            throw cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+        }
+    }
+    
+    private static <T> CompletableFuture<T> rejectOnFeignError(CompletableFuture<T> lookup, String message) {
+        return lookup.handle((value, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof FeignException || cause instanceof BatchLoader.MissingEntityException) {
+                throw new RuntimeException(message);
+            }
+            if (cause != null) {
+                throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+            }
+            return value;
+        });
+    }
+    
+    @Transactional
     public TransactionResponseDto returnBook(Long transactionId) {
         logger.info("Processing return request for transaction: {}", transactionId);
         
@@ -121,18 +299,22 @@ public class TransactionService {
         transaction.markAsReturned();
         transaction = transactionRepository.save(transaction);
         
-        // Update book inventory
-        try {
-            bookServiceClient.returnBook(transaction.getBookId());
-        } catch (FeignException e) {
-            logger.error("Failed to update book inventory for book ID: {}", transaction.getBookId());
-            throw new RuntimeException("Failed to update book inventory");
+        // Update book inventory, unless the copy goes straight to the next member on the waitlist
+        if (!reservationService.holdReturnedCopy(transaction.getBookId())) {
+            try {
+                bookServiceClient.returnBook(transaction.getBookId());
+            } catch (FeignException e) {
+                logger.error("Failed to update book inventory for book ID: {}", transaction.getBookId());
+                throw new RuntimeException("Failed to update book inventory");
+            }
         }
+        activeLoanIndex.removeAfterCommit(transaction.getUserId(), transaction.getBookId());
         
         logger.info("Book returned successfully. Transaction ID: {}", transaction.getId());
         return new TransactionResponseDto(transaction);
     }
     
+    @Transactional
     public TransactionResponseDto returnBookByUserAndBook(Long userId, Long bookId) {
         logger.info("Processing return request for user: {} and book: {}", userId, bookId);
         
@@ -143,96 +325,229 @@ public class TransactionService {
         return returnBook(transaction.getId());
     }
     
-    public List<TransactionResponseDto> getUserTransactions(Long userId) {
-        List<Transaction> transactions = transactionRepository.findByUserId(userId);
-        return transactions.stream()
-                .map(TransactionResponseDto::new)
-                .collect(Collectors.toList());
+    // Primary: a member's own loans must include the one they just borrowed or returned
+    @Transactional
+    public Page<TransactionResponseDto> getUserTransactions(Long userId, Pageable pageable) {
+        return withArchive(pageable,
+                p -> transactionRepository.findResponsesByUserId(userId, p),
+                p -> archivedTransactionRepository.findResponsesByUserId(userId, p));
     }
     
-    public List<TransactionResponseDto> getActiveTransactions() {
-        List<Transaction> transactions = transactionRepository
-                .findByStatus(Transaction.TransactionStatus.ACTIVE);
-        return transactions.stream()
-                .map(TransactionResponseDto::new)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<TransactionResponseDto> getActiveTransactions(Pageable pageable) {
+        return transactionRepository.findResponsesByStatus(Transaction.TransactionStatus.ACTIVE, pageable);
     }
     
-    public List<TransactionResponseDto> getOverdueTransactions() {
-        List<Transaction> transactions = transactionRepository
-                .findOverdueTransactions(LocalDateTime.now(), Transaction.TransactionStatus.ACTIVE);
-        return transactions.stream()
-                .map(TransactionResponseDto::new)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<TransactionResponseDto> getOverdueTransactions(Pageable pageable) {
+        return transactionRepository.findOverdueResponses(LocalDateTime.now(), Transaction.TransactionStatus.ACTIVE, pageable);
     }
     
-    public List<TransactionResponseDto> getBookTransactions(Long bookId) {
-        List<Transaction> transactions = transactionRepository.findByBookId(bookId);
-        return transactions.stream()
-                .map(TransactionResponseDto::new)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<TransactionResponseDto> getBookTransactions(Long bookId, Pageable pageable) {
+        return withArchive(pageable,
+                p -> transactionRepository.findResponsesByBookId(bookId, p),
+                p -> archivedTransactionRepository.findResponsesByBookId(bookId, p));
     }
     
-    public List<TransactionResponseDto> getTransactionsByDateRange(LocalDateTime startDate, 
-                                                                  LocalDateTime endDate) {
-        List<Transaction> transactions = transactionRepository.findByDateRange(startDate, endDate);
-        return transactions.stream()
-                .map(TransactionResponseDto::new)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<TransactionResponseDto> getTransactionsByDateRange(LocalDateTime startDate, 
+                                                                  LocalDateTime endDate,
+                                                                  Pageable pageable) {
+        return withArchive(pageable,
+                p -> transactionRepository.findResponsesByDateRange(startDate, endDate, p),
+                p -> archivedTransactionRepository.findResponsesByDateRange(startDate, endDate, p));
+    }
+    
+    // Streaming mode: rows are handed to the callback one at a time from forward-only cursors
+    // over both tiers, merged in createdAt order, so memory stays flat however wide the range is
+    @Transactional(readOnly = true)
+    public <R> R streamTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                               Function<Stream<TransactionResponseDto>, R> consumer) {
+        try (Stream<TransactionResponseDto> live = transactionRepository.streamResponsesByDateRange(startDate, endDate);
+             Stream<TransactionResponseDto> archived =
+                     archivedTransactionRepository.streamResponsesByDateRange(startDate, endDate)) {
+            return consumer.apply(mergeByCreatedAt(live.iterator(), archived.iterator()));
+        }
     }
     
+    @Transactional
     public Optional<TransactionResponseDto> getTransactionById(Long id) {
         return transactionRepository.findById(id)
-                .map(TransactionResponseDto::new);
+                .map(TransactionResponseDto::new)
+                .or(() -> archivedTransactionRepository.findResponseById(id));
     }
     
     // Analytics methods
+    @Transactional(readOnly = true)
     public long getTotalTransactionsCount() {
-        return transactionRepository.countTotalTransactions();
+        return transactionRepository.countTotalTransactions() + rollupRepository.sumAll();
     }
     
+    @Transactional(readOnly = true)
     public long getActiveTransactionsCount() {
         return transactionRepository.countTransactionsByStatus(Transaction.TransactionStatus.ACTIVE);
     }
     
+    @Transactional(readOnly = true)
     public long getCompletedTransactionsCount() {
-        return transactionRepository.countTransactionsByStatus(Transaction.TransactionStatus.COMPLETED);
+        return transactionRepository.countTransactionsByStatus(Transaction.TransactionStatus.COMPLETED)
+                + rollupRepository.sumByStatus(Transaction.TransactionStatus.COMPLETED);
     }
     
+    @Transactional(readOnly = true)
     public long getOverdueTransactionsCount() {
         List<Transaction> overdueTransactions = transactionRepository
                 .findOverdueTransactions(LocalDateTime.now(), Transaction.TransactionStatus.ACTIVE);
         return overdueTransactions.size();
     }
     
+    @Transactional(readOnly = true)
     public List<Object[]> getMonthlyTransactionStats() {
-        LocalDateTime startDate = LocalDateTime.now().minusMonths(12);
-        return transactionRepository.getMonthlyTransactionStats(startDate);
+        // Whole calendar months, so the archived counts (kept per month) line up with the live ones
+        LocalDateTime startDate = LocalDateTime.now().minusMonths(12).withDayOfMonth(1).toLocalDate().atStartOfDay();
+        Map<Integer, Object[]> months = new TreeMap<>();
+        List<Object[]> rows = new ArrayList<>(transactionRepository.getMonthlyTransactionStats(startDate));
+        rows.addAll(rollupRepository.getMonthlyTransactionStats(startDate.getYear() * 100 + startDate.getMonthValue()));
+        for (Object[] row : rows) {
+            int year = ((Number) row[0]).intValue();
+            int month = ((Number) row[1]).intValue();
+            long count = ((Number) row[2]).longValue();
+            months.merge(year * 100 + month, new Object[]{year, month, count},
+                    (a, b) -> new Object[]{year, month, (long) a[2] + (long) b[2]});
+        }
+        return new ArrayList<>(months.values());
     }
     
+    @Transactional(readOnly = true)
     public List<Object[]> getMostBorrowedBooks() {
-        return transactionRepository.getMostBorrowedBooks(Transaction.TransactionType.BORROW);
+        return mergeCounts(transactionRepository.getMostBorrowedBooks(Transaction.TransactionType.BORROW),
+                archivedTransactionRepository.getMostBorrowedBooks(Transaction.TransactionType.BORROW));
     }
     
+    @Transactional(readOnly = true)
     public List<Object[]> getUserBorrowingPatterns() {
-        return transactionRepository.getUserBorrowingPatterns(Transaction.TransactionType.BORROW);
+        return mergeCounts(transactionRepository.getUserBorrowingPatterns(Transaction.TransactionType.BORROW),
+                archivedTransactionRepository.getUserBorrowingPatterns(Transaction.TransactionType.BORROW));
     }
     
+    @Transactional(readOnly = true)
     public long getTransactionsTodayCount() {
         LocalDateTime startOfDay = LocalDateTime.now().toLocalDate().atStartOfDay();
         LocalDateTime endOfDay = startOfDay.plusDays(1);
         return transactionRepository.countByCreatedAtBetween(startOfDay, endOfDay);
     }
     
+    @Transactional(readOnly = true)
     public long getTransactionsThisWeekCount() {
         LocalDateTime startOfWeek = LocalDateTime.now().minusDays(LocalDateTime.now().getDayOfWeek().getValue() - 1).toLocalDate().atStartOfDay();
         LocalDateTime endOfWeek = startOfWeek.plusDays(7);
         return transactionRepository.countByCreatedAtBetween(startOfWeek, endOfWeek);
     }
     
+    @Transactional(readOnly = true)
     public long getTransactionsThisMonthCount() {
         LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).toLocalDate().atStartOfDay();
         LocalDateTime endOfMonth = startOfMonth.plusMonths(1);
         return transactionRepository.countByCreatedAtBetween(startOfMonth, endOfMonth);
     }
+    
+    // Unions the archive tier into a history query. Both tiers are read in the same order and the
+    // union is re-sorted on it. A page is cut from the first offset + size rows of each tier, so
+    // only that much is read from either side, and pages deeper than max-page-depth are refused.
+    private Page<TransactionResponseDto> withArchive(Pageable pageable,
+                                                    Function<Pageable, Page<TransactionResponseDto>> live,
+                                                    Function<Pageable, Page<TransactionResponseDto>> archived) {
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : NEWEST_FIRST;
+        Comparator<TransactionResponseDto> order = mergeOrder(sort);
+        if (pageable.isUnpaged()) {
+            Pageable all = Pageable.unpaged(sort);
+            List<TransactionResponseDto> content = Stream.concat(live.apply(all).stream(), archived.apply(all).stream())
+                    .sorted(order)
+                    .toList();
+            return new PageImpl<>(content);
+        }
+        long depth = pageable.getOffset() + pageable.getPageSize();
+        if (depth > maxPageDepth) {
+            throw new IllegalArgumentException("History pages stop at row " + maxPageDepth
+                    + "; narrow the query (e.g. by date range) to reach older transactions");
+        }
+        Pageable head = PageRequest.of(0, (int) depth, sort);
+        Page<TransactionResponseDto> livePage = live.apply(head);
+        Page<TransactionResponseDto> archivedPage = archived.apply(head);
+        List<TransactionResponseDto> content = Stream.concat(livePage.stream(), archivedPage.stream())
+                .sorted(order)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(content, pageable, livePage.getTotalElements() + archivedPage.getTotalElements());
+    }
+    
+    // The in-memory equivalent of the ORDER BY each tier was read with
+    private static Comparator<TransactionResponseDto> mergeOrder(Sort sort) {
+        Comparator<TransactionResponseDto> order = null;
+        for (Sort.Order by : sort) {
+            Comparator<TransactionResponseDto> next = MERGEABLE_SORTS.get(by.getProperty());
+            if (next == null) {
+                throw new IllegalArgumentException("History can only be sorted by " + MERGEABLE_SORTS.keySet()
+                        + ", not " + by.getProperty());
+            }
+            if (by.isDescending()) {
+                next = next.reversed();
+            }
+            order = order == null ? next : order.thenComparing(next);
+        }
+        return order;
+    }
+    
+    private static Stream<TransactionResponseDto> mergeByCreatedAt(Iterator<TransactionResponseDto> first,
+                                                                   Iterator<TransactionResponseDto> second) {
+        Iterator<TransactionResponseDto> merged = new Iterator<>() {
+            private TransactionResponseDto nextFirst = first.hasNext() ? first.next() : null;
+            private TransactionResponseDto nextSecond = second.hasNext() ? second.next() : null;
+            
+            @Override
+            public boolean hasNext() {
+                return nextFirst != null || nextSecond != null;
+            }
+            
+            @Override
+            public TransactionResponseDto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                TransactionResponseDto result;
+                if (nextSecond == null || (nextFirst != null && OLDEST_FIRST.compare(nextFirst, nextSecond) <= 0)) {
+                    result = nextFirst;
+                    nextFirst = first.hasNext() ? first.next() : null;
+                } else {
+                    result = nextSecond;
+                    nextSecond = second.hasNext() ? second.next() : null;
+                }
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false);
+    }
+    
+    // Adds archived group counts (last column) to the live ones and re-sorts by count
+    private static List<Object[]> mergeCounts(List<Object[]> live, List<Object[]> archived) {
+        Map<List<Object>, Object[]> groups = new LinkedHashMap<>();
+        for (Object[] row : live) {
+            groups.put(groupKey(row), row.clone());
+        }
+        for (Object[] row : archived) {
+            groups.merge(groupKey(row), row.clone(), (a, b) -> {
+                a[a.length - 1] = ((Number) a[a.length - 1]).longValue() + ((Number) b[b.length - 1]).longValue();
+                return a;
+            });
+        }
+        List<Object[]> merged = new ArrayList<>(groups.values());
+        merged.sort(Comparator.comparingLong((Object[] row) -> ((Number) row[row.length - 1]).longValue()).reversed());
+        return merged;
+    }
+    
+    private static List<Object> groupKey(Object[] row) {
+        return new ArrayList<>(Arrays.asList(row).subList(0, row.length - 1));
+    }
 }
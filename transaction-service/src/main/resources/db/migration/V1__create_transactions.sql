@@ -0,0 +1,18 @@
+-- Transaction service schema, mirrors com.library.transaction.entity.Transaction
+CREATE TABLE transactions (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id     BIGINT       NOT NULL,
+    book_id     BIGINT       NOT NULL,
+    type        VARCHAR(255),
+    status      VARCHAR(255) DEFAULT 'ACTIVE',
+    borrowed_at TIMESTAMP(6),
+    due_date    TIMESTAMP(6),
+    returned_at TIMESTAMP(6),
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    notes       VARCHAR(255),
+    user_email  VARCHAR(255),
+    book_title  VARCHAR(255),
+    book_author VARCHAR(255),
+    book_isbn   VARCHAR(255)
+);
@@ -0,0 +1,22 @@
+-- Access paths for TransactionRepository
+
+-- findByUserIdAndBookIdAndStatus (borrow/return duplicate checks); its prefix serves findByUserId
+CREATE INDEX idx_transactions_user_book_status ON transactions (user_id, book_id, status);
+
+-- findByUserIdAndStatus, countActiveTransactionsByUser (borrow limit check)
+CREATE INDEX idx_transactions_user_status ON transactions (user_id, status);
+
+-- findByBookId, findByBookIdAndStatus
+CREATE INDEX idx_transactions_book_status ON transactions (book_id, status);
+
+-- findOverdueTransactions (status = ? AND due_date < ?), findByStatus, countTransactionsByStatus
+CREATE INDEX idx_transactions_status_due_date ON transactions (status, due_date);
+
+-- findByDateRange, countByCreatedAtBetween, getMonthlyTransactionStats
+CREATE INDEX idx_transactions_created_at ON transactions (created_at);
+
+-- findByType, countTransactionsByType, getMostBorrowedBooks (type = ? GROUP BY book_id)
+CREATE INDEX idx_transactions_type_book ON transactions (type, book_id);
+
+-- getUserBorrowingPatterns (type = ? GROUP BY user_id)
+CREATE INDEX idx_transactions_type_user ON transactions (type, user_id);
@@ -0,0 +1,41 @@
+-- Cold tier for closed loans, mirrors com.library.transaction.entity.ArchivedTransaction.
+-- Rows keep their live ids; TransactionArchiveService copies and deletes them in one transaction.
+CREATE TABLE transactions_archive (
+    id          BIGINT       PRIMARY KEY,
+    user_id     BIGINT       NOT NULL,
+    book_id     BIGINT       NOT NULL,
+    type        VARCHAR(255),
+    status      VARCHAR(255),
+    borrowed_at TIMESTAMP(6),
+    due_date    TIMESTAMP(6),
+    returned_at TIMESTAMP(6),
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    notes       VARCHAR(255),
+    user_email  VARCHAR(255),
+    book_title  VARCHAR(255),
+    book_author VARCHAR(255),
+    book_isbn   VARCHAR(255),
+    archived_at TIMESTAMP(6) NOT NULL
+);
+
+-- History endpoints: /user/{userId}, /book/{bookId}, /date-range (all newest first)
+CREATE INDEX idx_transactions_archive_user_created ON transactions_archive (user_id, created_at);
+CREATE INDEX idx_transactions_archive_book_created ON transactions_archive (book_id, created_at);
+CREATE INDEX idx_transactions_archive_created_at ON transactions_archive (created_at);
+
+-- findArchivableIds (status IN closed statuses AND updated_at < cutoff)
+CREATE INDEX idx_transactions_status_updated_at ON transactions (status, updated_at);
+
+-- Monthly counts for archived rows, mirrors com.library.transaction.entity.TransactionMonthlyRollup
+CREATE SEQUENCE transaction_rollups_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE transaction_monthly_rollups (
+    id                BIGINT       PRIMARY KEY,
+    rollup_year       INTEGER      NOT NULL,
+    rollup_month      INTEGER      NOT NULL,
+    type              VARCHAR(255) NOT NULL,
+    status            VARCHAR(255) NOT NULL,
+    transaction_count BIGINT       NOT NULL,
+    CONSTRAINT uk_rollup_month_type_status UNIQUE (rollup_year, rollup_month, type, status)
+);
@@ -0,0 +1,3 @@
+-- Backstop for borrowBook's duplicate check across instances: at most one ACTIVE loan per user and book.
+-- Within an instance StripedLockManager already serializes a user's borrows.
+CREATE UNIQUE INDEX uk_transactions_active_user_book ON transactions (user_id, book_id) WHERE status = 'ACTIVE';
@@ -0,0 +1,4 @@
+-- Reservation queues (type RESERVE): open reservations are loaded in queue order at startup and
+-- expired holds are swept by due_date. At most one open reservation per user and book.
+CREATE INDEX idx_transactions_open_reservations ON transactions (book_id, created_at, id) WHERE status IN ('WAITING', 'HELD');
+CREATE UNIQUE INDEX uk_transactions_open_reservation_user_book ON transactions (user_id, book_id) WHERE status IN ('WAITING', 'HELD');
@@ -0,0 +1,192 @@
+package com.library.transaction.service;
+
+import com.library.transaction.entity.Transaction;
+import com.library.transaction.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ActiveLoanIndexTest {
+
+    private TransactionRepository transactionRepository;
+    private ActiveLoanIndex index;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        index = new ActiveLoanIndex();
+        ReflectionTestUtils.setField(index, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(index, "enabled", true);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadsActiveLoansFromTheDatabase() {
+        load(new Object[]{1L, 10L}, new Object[]{1L, 11L}, new Object[]{2L, 10L});
+
+        assertTrue(index.isReady());
+        assertTrue(index.hasLoan(1L, 10L));
+        assertTrue(index.hasLoan(1L, 11L));
+        assertTrue(index.hasLoan(2L, 10L));
+        assertFalse(index.hasLoan(2L, 11L));
+        assertEquals(2, index.countLoans(1L));
+        assertEquals(0, index.countLoans(3L));
+    }
+
+    @Test
+    void putAndRemoveKeepBooksSortedAndUnique() {
+        load();
+
+        index.addAfterCommit(7L, 30L);
+        index.addAfterCommit(7L, 10L);
+        index.addAfterCommit(7L, 20L);
+        index.addAfterCommit(7L, 20L);
+        assertEquals(3, index.countLoans(7L));
+
+        index.removeAfterCommit(7L, 20L);
+        index.removeAfterCommit(7L, 99L);
+        assertEquals(2, index.countLoans(7L));
+        assertFalse(index.hasLoan(7L, 20L));
+        assertTrue(index.hasLoan(7L, 10L));
+        assertTrue(index.hasLoan(7L, 30L));
+    }
+
+    @Test
+    void userZeroLivesOutsideTheTable() {
+        load();
+
+        index.addAfterCommit(0L, 5L);
+        assertTrue(index.hasLoan(0L, 5L));
+        index.removeAfterCommit(0L, 5L);
+        assertFalse(index.hasLoan(0L, 5L));
+        assertEquals(0, index.countLoans(0L));
+    }
+
+    @Test
+    void removingFromAProbeChainKeepsTheRestReachable() {
+        load();
+        // Users that share a home slot in the initial 64-slot table, so they sit in one probe chain
+        List<Long> chain = collidingUsers(64, 5);
+        for (long userId : chain) {
+            index.addAfterCommit(userId, userId);
+        }
+
+        // Empty the head, then one from the middle: backward shift must close each gap
+        index.removeAfterCommit(chain.get(0), chain.get(0));
+        index.removeAfterCommit(chain.get(2), chain.get(2));
+
+        assertFalse(index.hasLoan(chain.get(0), chain.get(0)));
+        assertFalse(index.hasLoan(chain.get(2), chain.get(2)));
+        for (long userId : List.of(chain.get(1), chain.get(3), chain.get(4))) {
+            assertTrue(index.hasLoan(userId, userId), "lost user " + userId);
+        }
+    }
+
+    @Test
+    void matchesAReferenceMapAcrossResizesAndDeletes() {
+        load();
+        Map<Long, Set<Long>> expected = new HashMap<>();
+        Random random = new Random(41);
+
+        // Enough users to grow the table several times, then enough removals to empty most of it
+        for (int op = 0; op < 20_000; op++) {
+            long userId = random.nextInt(2_000);
+            long bookId = random.nextInt(8);
+            if (random.nextInt(3) > 0) {
+                index.addAfterCommit(userId, bookId);
+                expected.computeIfAbsent(userId, id -> new TreeSet<>()).add(bookId);
+            } else {
+                index.removeAfterCommit(userId, bookId);
+                Set<Long> books = expected.get(userId);
+                if (books != null) {
+                    books.remove(bookId);
+                }
+            }
+        }
+
+        for (long userId = 0; userId < 2_000; userId++) {
+            Set<Long> books = expected.getOrDefault(userId, Set.of());
+            assertEquals(books.size(), index.countLoans(userId), "user " + userId);
+            for (long bookId = 0; bookId < 8; bookId++) {
+                assertEquals(books.contains(bookId), index.hasLoan(userId, bookId), "user " + userId + " book " + bookId);
+            }
+        }
+    }
+
+    @Test
+    void changesCommittedDuringTheInitialLoadAreReplayed() {
+        index.addAfterCommit(3L, 30L);
+        index.removeAfterCommit(4L, 40L);
+        assertFalse(index.isReady());
+
+        load(new Object[]{4L, 40L});
+
+        assertTrue(index.hasLoan(3L, 30L));
+        assertFalse(index.hasLoan(4L, 40L));
+    }
+
+    @Test
+    void changesWaitForTheirTransactionToCommit() {
+        load();
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.addAfterCommit(5L, 50L);
+        index.addAfterCommit(6L, 60L);
+        assertFalse(index.hasLoan(5L, 50L));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.get(0).afterCommit();
+        // The second transaction rolled back: afterCommit never runs
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertTrue(index.hasLoan(5L, 50L));
+        assertFalse(index.hasLoan(6L, 60L));
+    }
+
+    private void load(Object[]... loans) {
+        List<Object[]> rows = new ArrayList<>(List.of(loans));
+        when(transactionRepository.findLoanPairsByStatus(Transaction.TransactionStatus.ACTIVE)).thenReturn(rows);
+        index.load();
+    }
+
+    // Same mixing as ActiveLoanIndex#hash
+    private static List<Long> collidingUsers(int capacity, int count) {
+        List<Long> users = new ArrayList<>();
+        int home = -1;
+        for (long userId = 1; users.size() < count; userId++) {
+            long h = userId * 0x9E3779B97F4A7C15L;
+            int slot = (int) (h ^ (h >>> 32)) & (capacity - 1);
+            if (home == -1) {
+                home = slot;
+            }
+            if (slot == home) {
+                users.add(userId);
+            }
+        }
+        return users;
+    }
+}
@@ -0,0 +1,161 @@
+package com.library.transaction.service;
+
+import com.library.transaction.client.AsyncServiceClients;
+import com.library.transaction.client.BookServiceClient;
+import com.library.transaction.client.UserServiceClient;
+import com.library.transaction.config.TransactionDataInitializer;
+import com.library.transaction.dto.TransactionDto;
+import com.library.transaction.entity.Transaction;
+import com.library.transaction.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Concurrent borrows for one member must still respect the five-loan limit and never create two
+ * ACTIVE loans of the same book: the per-user striped lock serializes the checks and the insert
+ * until commit, and the active-loan index only changes after that commit.
+ */
+@SpringBootTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.cloud.discovery.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "library.archive.enabled=false",
+        "library.book-replica.enabled=false",
+        "library.locks.wait-timeout-ms=30000",
+        "jwt.secret=BorrowConcurrencyTestSecretKey0123456789",
+        "jwt.expiration=60000"
+})
+class BorrowConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @MockBean
+    private AsyncServiceClients asyncServiceClients;
+
+    @MockBean
+    private BookServiceClient bookServiceClient;
+
+    @MockBean
+    private BookCatalogReplica bookCatalogReplica;
+
+    @MockBean
+    private ReservationService reservationService;
+
+    // Seeds demo loans through the peers after a 10 s wait; nothing to seed here
+    @MockBean
+    private TransactionDataInitializer transactionDataInitializer;
+
+    @BeforeEach
+    void peers() {
+        when(asyncServiceClients.getUserById(anyLong())).thenAnswer(invocation -> {
+            UserServiceClient.UserDto user = new UserServiceClient.UserDto();
+            user.setId(invocation.getArgument(0));
+            user.setEmail("member@library.com");
+            return CompletableFuture.completedFuture(user);
+        });
+        when(asyncServiceClients.getBookById(anyLong())).thenAnswer(invocation -> {
+            BookServiceClient.BookDto book = new BookServiceClient.BookDto();
+            book.setId(invocation.getArgument(0));
+            book.setTitle("Book " + invocation.getArgument(0));
+            book.setAvailableCopies(THREADS);
+            return CompletableFuture.completedFuture(book);
+        });
+    }
+
+    @Test
+    void concurrentBorrowsOfDifferentBooksStopAtTheLimit() throws Exception {
+        long userId = 101L;
+
+        int succeeded = borrowConcurrently(userId, thread -> 1_000L + thread);
+
+        List<Transaction> active = transactionRepository.findByUserIdAndStatus(userId, Transaction.TransactionStatus.ACTIVE);
+        assertEquals(5, succeeded);
+        assertEquals(5, active.size());
+        assertEquals(5, active.stream().map(Transaction::getBookId).distinct().count());
+    }
+
+    @Test
+    void concurrentBorrowsOfOneBookCreateOneLoan() throws Exception {
+        long userId = 202L;
+
+        int succeeded = borrowConcurrently(userId, thread -> 2_000L);
+
+        List<Transaction> active = transactionRepository.findByUserIdAndStatus(userId, Transaction.TransactionStatus.ACTIVE);
+        assertEquals(1, succeeded);
+        assertEquals(1, active.size());
+    }
+
+    @Test
+    void mixedConcurrentBorrowsNeverDuplicateOrExceedTheLimit() throws Exception {
+        long userId = 303L;
+
+        // Every book requested by several threads at once
+        int succeeded = borrowConcurrently(userId, thread -> 3_000L + thread % 8);
+
+        List<Transaction> active = transactionRepository.findByUserIdAndStatus(userId, Transaction.TransactionStatus.ACTIVE);
+        Set<Long> books = new HashSet<>();
+        active.forEach(loan -> assertTrue(books.add(loan.getBookId()), "duplicate loan of book " + loan.getBookId()));
+        assertEquals(5, succeeded);
+        assertEquals(5, active.size());
+    }
+
+    // Fires THREADS borrows for userId at once; returns how many were accepted
+    private int borrowConcurrently(long userId, LongFunction<Long> bookForThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                TransactionDto request = new TransactionDto(userId, bookForThread.apply(thread),
+                        Transaction.TransactionType.BORROW);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        transactionService.borrowBook(request);
+                        return true;
+                    } catch (RuntimeException rejected) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
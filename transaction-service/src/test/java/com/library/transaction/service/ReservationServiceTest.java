@@ -0,0 +1,233 @@
+package com.library.transaction.service;
+
+import com.library.transaction.client.BookServiceClient;
+import com.library.transaction.entity.Transaction;
+import com.library.transaction.repository.TransactionRepository;
+import com.library.transaction.security.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReservationServiceTest {
+
+    private static final long BOOK_ID = 7L;
+
+    // Reservation rows by id, in creation order, behind the mocked repository
+    private final Map<Long, Transaction> rows = new LinkedHashMap<>();
+    private long nextId = 1;
+
+    private TransactionRepository transactionRepository;
+    private BookServiceClient bookServiceClient;
+    private ReservationService reservations;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        bookServiceClient = mock(BookServiceClient.class);
+        JwtUtil jwtUtil = mock(JwtUtil.class);
+        when(jwtUtil.generateServiceToken(anyString())).thenReturn("service-token");
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(rows.get((Long) invocation.getArgument(0))));
+        when(transactionRepository.findBookIdById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(rows.get((Long) invocation.getArgument(0))).map(Transaction::getBookId));
+        when(transactionRepository.findByStatusInOrderByCreatedAtAscIdAsc(any())).thenAnswer(invocation ->
+                rows.values().stream().filter(row -> invocation.<List<?>>getArgument(0).contains(row.getStatus())).toList());
+        when(transactionRepository.findByUserIdAndBookIdAndStatus(anyLong(), anyLong(), any())).thenAnswer(invocation ->
+                rows.values().stream()
+                        .filter(row -> row.getUserId().equals(invocation.getArgument(0))
+                                && row.getBookId().equals(invocation.getArgument(1))
+                                && row.getStatus() == invocation.getArgument(2))
+                        .findFirst());
+        when(transactionRepository.findFirstByBookIdAndStatusOrderByCreatedAtAscIdAsc(anyLong(), any())).thenAnswer(invocation ->
+                rows.values().stream()
+                        .filter(row -> row.getBookId().equals(invocation.getArgument(0)) && row.getStatus() == invocation.getArgument(1))
+                        .min(Comparator.comparing(Transaction::getId)));
+        when(transactionRepository.findIdsByStatusAndDueDateBefore(any(), any())).thenAnswer(invocation ->
+                rows.values().stream()
+                        .filter(row -> row.getStatus() == invocation.getArgument(0)
+                                && row.getDueDate().isBefore(invocation.getArgument(1)))
+                        .map(Transaction::getId)
+                        .toList());
+
+        reservations = new ReservationService();
+        ReflectionTestUtils.setField(reservations, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(reservations, "stripedLockManager", mock(StripedLockManager.class));
+        ReflectionTestUtils.setField(reservations, "bookServiceClient", bookServiceClient);
+        ReflectionTestUtils.setField(reservations, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(reservations, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(reservations, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(reservations, "holdHours", 48L);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadRebuildsWaitlistsAndHolds() {
+        reservation(10L, Transaction.TransactionStatus.WAITING);
+        reservation(11L, Transaction.TransactionStatus.HELD);
+
+        reservations.load();
+
+        assertTrue(reservations.hasWaiters(BOOK_ID));
+        assertTrue(reservations.hasOpenReservation(10L, BOOK_ID));
+        assertTrue(reservations.isHolding(11L, BOOK_ID));
+        assertFalse(reservations.isHolding(10L, BOOK_ID));
+        assertFalse(reservations.hasWaiters(BOOK_ID + 1));
+    }
+
+    @Test
+    void returnedCopiesGoToWaitersInArrivalOrder() {
+        Transaction first = reservation(10L, Transaction.TransactionStatus.WAITING);
+        Transaction second = reservation(11L, Transaction.TransactionStatus.WAITING);
+        reservations.load();
+
+        assertTrue(reservations.holdReturnedCopy(BOOK_ID));
+        assertEquals(Transaction.TransactionStatus.HELD, first.getStatus());
+        assertTrue(first.getDueDate().isAfter(LocalDateTime.now().plusHours(47)));
+        assertTrue(reservations.isHolding(10L, BOOK_ID));
+        assertEquals(Transaction.TransactionStatus.WAITING, second.getStatus());
+
+        assertTrue(reservations.holdReturnedCopy(BOOK_ID));
+        assertTrue(reservations.isHolding(11L, BOOK_ID));
+        assertFalse(reservations.hasWaiters(BOOK_ID));
+
+        assertFalse(reservations.holdReturnedCopy(BOOK_ID));
+    }
+
+    @Test
+    void claimingAHoldCompletesItAndClearsTheQueue() {
+        Transaction hold = reservation(10L, Transaction.TransactionStatus.HELD);
+        reservations.load();
+
+        assertEquals(hold, reservations.claimHold(10L, BOOK_ID));
+
+        assertEquals(Transaction.TransactionStatus.COMPLETED, hold.getStatus());
+        assertFalse(reservations.isHolding(10L, BOOK_ID));
+        assertFalse(reservations.hasOpenReservation(10L, BOOK_ID));
+    }
+
+    @Test
+    void anExpiredHoldCannotBeClaimed() {
+        Transaction hold = reservation(10L, Transaction.TransactionStatus.HELD);
+        hold.setDueDate(LocalDateTime.now().minusMinutes(1));
+        reservations.load();
+
+        assertThrows(RuntimeException.class, () -> reservations.claimHold(10L, BOOK_ID));
+        assertEquals(Transaction.TransactionStatus.HELD, hold.getStatus());
+    }
+
+    @Test
+    void cancellingAHoldPassesTheCopyToTheNextWaiter() {
+        Transaction hold = reservation(10L, Transaction.TransactionStatus.HELD);
+        Transaction waiter = reservation(11L, Transaction.TransactionStatus.WAITING);
+        reservations.load();
+
+        reservations.cancelReservation(hold.getId());
+
+        assertEquals(Transaction.TransactionStatus.CANCELLED, hold.getStatus());
+        assertEquals(Transaction.TransactionStatus.HELD, waiter.getStatus());
+        assertTrue(reservations.isHolding(11L, BOOK_ID));
+        verify(bookServiceClient, never()).returnBook(anyLong());
+    }
+
+    @Test
+    void anExpiredHoldWithNobodyWaitingGoesBackOnTheShelf() {
+        Transaction hold = reservation(10L, Transaction.TransactionStatus.HELD);
+        hold.setDueDate(LocalDateTime.now().minusMinutes(1));
+        reservations.load();
+
+        reservations.expireHolds();
+
+        assertEquals(Transaction.TransactionStatus.CANCELLED, hold.getStatus());
+        assertFalse(reservations.isHolding(10L, BOOK_ID));
+        verify(bookServiceClient).returnBook(BOOK_ID);
+    }
+
+    @Test
+    void cancellingAWaiterOnlyLeavesTheQueue() {
+        Transaction first = reservation(10L, Transaction.TransactionStatus.WAITING);
+        reservation(11L, Transaction.TransactionStatus.WAITING);
+        reservations.load();
+
+        reservations.cancelReservation(first.getId());
+
+        assertFalse(reservations.hasOpenReservation(10L, BOOK_ID));
+        assertTrue(reservations.hasOpenReservation(11L, BOOK_ID));
+        verify(bookServiceClient, never()).returnBook(anyLong());
+    }
+
+    @Test
+    void queueChangesWaitForCommitAndAreDroppedOnRollback() {
+        reservations.load();
+        TransactionSynchronizationManager.initSynchronization();
+
+        reservations.enqueue(reservation(10L, Transaction.TransactionStatus.WAITING));
+        reservations.enqueue(reservation(11L, Transaction.TransactionStatus.WAITING));
+        assertFalse(reservations.hasWaiters(BOOK_ID));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.get(0).afterCommit();
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertTrue(reservations.hasOpenReservation(10L, BOOK_ID));
+        assertFalse(reservations.hasOpenReservation(11L, BOOK_ID));
+    }
+
+    @Test
+    void changesCommittedBeforeTheLoadAreReplayedOnTopOfIt() {
+        Transaction queued = reservation(10L, Transaction.TransactionStatus.WAITING);
+        reservations.enqueue(queued);
+        rows.remove(queued.getId());
+
+        reservations.load();
+
+        assertTrue(reservations.hasOpenReservation(10L, BOOK_ID));
+    }
+
+    private Transaction reservation(long userId, Transaction.TransactionStatus status) {
+        Transaction reservation = new Transaction(userId, BOOK_ID, Transaction.TransactionType.RESERVE);
+        reservation.setId(nextId++);
+        reservation.setStatus(status);
+        if (status == Transaction.TransactionStatus.HELD) {
+            reservation.setDueDate(LocalDateTime.now().plusHours(48));
+        }
+        rows.put(reservation.getId(), reservation);
+        return reservation;
+    }
+}
@@ -0,0 +1,59 @@
+package com.library.user.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read-replica routing, enabled with library.datasource.replica.enabled=true.
+ * <p>
+ * {@code @Transactional(readOnly = true)} work goes to the replica pool and everything
+ * else to the primary (spring.datasource). The lazy proxy defers the physical connection
+ * until the first statement, by which point the transaction has marked the connection
+ * read-only, and picks the pool from that flag. Reads that must see their own writes use
+ * a read-write transaction in UserService and so stay on the primary.
+ * <p>
+ * Without READ_REPLICA_URL the replica pool opens the primary's own embedded database: the
+ * routing and per-pool metrics can be exercised locally, but there is no replication lag.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("library.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") HikariDataSource replicaDataSource) {
+        if (replicaDataSource.getJdbcUrl() != null && replicaDataSource.getJdbcUrl().equals(primaryDataSource.getJdbcUrl())) {
+            logger.warn("⚠️ Read replica points at the primary database ({}); reads are routed but never lag",
+                       replicaDataSource.getJdbcUrl());
+        }
+        LazyConnectionDataSourceProxy routingDataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        routingDataSource.setReadOnlyDataSource(replicaDataSource);
+        return routingDataSource;
+    }
+}
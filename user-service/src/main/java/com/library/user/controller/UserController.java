@@ -15,6 +15,8 @@ import java.util.List;
 @RequestMapping("/api/users")
 public class UserController {
     
+    private static final int MAX_BATCH_IDS = 500;
+    
     @Autowired
     private UserService userService;
     
@@ -55,6 +57,16 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
     
+    // Multi-get for transaction-service's batch loader: one IN query, unknown ids are left out
+    @GetMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN') or hasRole('SYSTEM')")
+    public ResponseEntity<?> getUsersByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest().body("At most " + MAX_BATCH_IDS + " ids per batch");
+        }
+        return ResponseEntity.ok(userService.findAllByIds(ids));
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LIBRARIAN')")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
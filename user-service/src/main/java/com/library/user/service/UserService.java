@@ -15,7 +15,6 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-@Transactional
 public class UserService implements UserDetailsService {
     
     private final UserRepository userRepository;
@@ -27,7 +26,9 @@ public class UserService implements UserDetailsService {
         this.passwordEncoder = passwordEncoder;
     }
     
+    // Primary: login and borrow validation must see a user right after registration or an update
     @Override
+    @Transactional
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(usernameOrEmail)
                 .or(() -> userRepository.findByEmail(usernameOrEmail))
@@ -36,6 +37,7 @@ public class UserService implements UserDetailsService {
         return user;
     }
     
+    @Transactional
     public User registerUser(UserRegistrationDto registrationDto) {
         if (userRepository.existsByUsername(registrationDto.getUsername())) {
             throw new RuntimeException("Username is already taken!");
@@ -61,30 +63,42 @@ public class UserService implements UserDetailsService {
         return savedUser;
     }
     
+    @Transactional
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
     
+    @Transactional
+    public List<User> findAllByIds(List<Long> ids) {
+        return userRepository.findAllById(ids);
+    }
+    
+    @Transactional
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
     
+    @Transactional
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
     
+    @Transactional(readOnly = true)
     public List<User> findAllUsers() {
         return userRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public List<User> findActiveUsers() {
         return userRepository.findAllActiveUsers();
     }
     
+    @Transactional(readOnly = true)
     public List<User> searchUsers(String searchTerm) {
         return userRepository.searchUsers(searchTerm);
     }
     
+    @Transactional
     public User updateUser(Long id, User updatedUser) {
         return userRepository.findById(id)
                 .map(user -> {
@@ -98,6 +112,7 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
     
+    @Transactional
     public User updateUserRole(Long id, User.Role role) {
         return userRepository.findById(id)
                 .map(user -> {
@@ -107,6 +122,7 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
     
+    @Transactional
     public void enableUser(Long id) {
         userRepository.findById(id)
                 .ifPresentOrElse(
@@ -118,6 +134,7 @@ public class UserService implements UserDetailsService {
                 );
     }
     
+    @Transactional
     public void disableUser(Long id) {
         userRepository.findById(id)
                 .ifPresentOrElse(
@@ -129,6 +146,7 @@ public class UserService implements UserDetailsService {
                 );
     }
     
+    @Transactional
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
             throw new RuntimeException("User not found with id: " + id);
@@ -136,29 +154,35 @@ public class UserService implements UserDetailsService {
         userRepository.deleteById(id);
     }
     
+    @Transactional
     public boolean existsByUsername(String username) {
         return userRepository.existsByUsername(username);
     }
     
+    @Transactional
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
     
     // Analytics support methods
+    @Transactional(readOnly = true)
     public long getUserCount() {
         return userRepository.count();
     }
     
+    @Transactional(readOnly = true)
     public long getActiveUsersCount() {
         return userRepository.countUsersWithActiveTransactions();
     }
     
+    @Transactional(readOnly = true)
     public long getNewUsersThisMonth() {
         java.time.LocalDateTime monthStart = java.time.LocalDateTime.now()
                 .withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
         return userRepository.countUsersByCreatedAtAfter(monthStart);
     }
     
+    @Transactional(readOnly = true)
     public List<java.util.Map<String, Object>> getUserCountByRole() {
         List<Object[]> results = userRepository.getUserCountByRole();
         return results.stream()
@@ -171,19 +195,23 @@ public class UserService implements UserDetailsService {
                 .collect(java.util.stream.Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
     public List<Object[]> getUserGrowthStats() {
         java.time.LocalDateTime startDate = java.time.LocalDateTime.now().minusMonths(12);
         return userRepository.getUserGrowthStats(startDate);
     }
     
+    @Transactional(readOnly = true)
     public List<Object[]> getTopBorrowers() {
         return userRepository.getTopBorrowers();
     }
     
+    @Transactional(readOnly = true)
     public long getUsersByRoleCount(User.Role role) {
         return userRepository.countByRole(role);
     }
     
+    @Transactional(readOnly = true)
     public long getNewUserCount(java.time.LocalDateTime fromDate, java.time.LocalDateTime toDate) {
         return userRepository.countUsersByCreatedAtBetween(fromDate, toDate);
     }
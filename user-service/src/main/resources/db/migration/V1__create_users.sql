@@ -0,0 +1,17 @@
+-- User service schema, mirrors com.library.user.entity.User
+CREATE TABLE users (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username     VARCHAR(255) NOT NULL,
+    password     VARCHAR(255) NOT NULL,
+    email        VARCHAR(255) NOT NULL,
+    first_name   VARCHAR(255) NOT NULL,
+    last_name    VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    address      VARCHAR(255),
+    role         VARCHAR(255) NOT NULL DEFAULT 'USER',
+    enabled      BOOLEAN      NOT NULL DEFAULT TRUE,
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
@@ -0,0 +1,10 @@
+-- Access paths for UserRepository. username and email are covered by their unique constraints.
+
+-- findByRole, countByRole, getUserCountByRole
+CREATE INDEX idx_users_role ON users (role);
+
+-- countUsersByCreatedAtAfter, countUsersByCreatedAtBetween, getUserGrowthStats
+CREATE INDEX idx_users_created_at ON users (created_at);
+
+-- findAllActiveUsers, getTopBorrowers (enabled = true ORDER BY created_at DESC)
+CREATE INDEX idx_users_enabled_created_at ON users (created_at DESC) WHERE enabled = TRUE;